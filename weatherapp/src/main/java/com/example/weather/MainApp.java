@@ -1,5 +1,6 @@
 package com.example.weather;
 
+import com.example.weather.controller.MainController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -12,6 +13,8 @@ import javafx.stage.Stage;
  */
 public class MainApp extends Application {
 
+    private MainController controller;
+
     /**
      * Called by the JavaFX runtime to start the application.
      * Loads the FXML, sets up the scene and stylesheet, and shows the stage.
@@ -22,9 +25,11 @@ public class MainApp extends Application {
     @Override
     public void start(Stage stage) throws Exception {
         System.out.println("Starting Weather Dashboard UI…");
-        Parent root = FXMLLoader.load(
+        FXMLLoader loader = new FXMLLoader(
             getClass().getResource("/com/example/weather/main.fxml")
         );
+        Parent root = loader.load();
+        controller = loader.getController();
 
         // Create the scene
         Scene scene = new Scene(root, 600, 400);
@@ -39,6 +44,17 @@ public class MainApp extends Application {
         stage.show();
     }
 
+    /**
+     * Called by the JavaFX runtime on exit. Lets the controller save
+     * pending state and release its files.
+     */
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
     /**
      * Main entry point. Launches the JavaFX application.
      *
@@ -0,0 +1,79 @@
+// src/main/java/com/example/weather/controller/IconLoader.java
+package com.example.weather.controller;
+
+import com.example.weather.service.IconStore;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Loads weather icons as decoded {@link Image}s without touching the network
+ * or the disk on the JavaFX application thread.
+ *
+ * Decoded images are kept in a small in-memory cache in front of an
+ * {@link IconStore}, so after the first use an icon is shown immediately.
+ */
+public class IconLoader {
+
+    // there are only 18 icon codes; keep them all
+    private static final int MAX_IMAGES = 32;
+
+    private final IconStore store;
+    private final Executor executor;
+    private final AsyncCache<String, Image> images = Caffeine.newBuilder()
+        .maximumSize(MAX_IMAGES)
+        .buildAsync();
+
+    /**
+     * @param store    where the icon bytes come from
+     * @param executor runs the file reads and the decoding
+     */
+    public IconLoader(IconStore store, Executor executor) {
+        this.store = store;
+        this.executor = executor;
+    }
+
+    /**
+     * Loads an icon in the background.
+     *
+     * @param code the icon code reported by the API, e.g. {@code 10d}
+     * @return a future of the decoded image
+     */
+    public CompletableFuture<Image> load(String code) {
+        return images.get(code, (c, ignored) -> CompletableFuture
+            .supplyAsync(() -> store.get(c), executor)
+            .thenCompose(bytes -> bytes)
+            .thenApplyAsync(bytes -> new Image(new ByteArrayInputStream(bytes)), executor));
+    }
+
+    /**
+     * Loads an icon in the background and hands it to {@code show} on the
+     * JavaFX application thread. Failures are ignored: the old icon stays.
+     *
+     * @param code the icon code reported by the API
+     * @param show receives the image on the FX thread
+     */
+    public void show(String code, Consumer<Image> show) {
+        CompletableFuture<Image> cached = images.getIfPresent(code);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            show.accept(cached.join());
+            return;
+        }
+        load(code).thenAccept(img -> Platform.runLater(() -> show.accept(img)));
+    }
+
+    /**
+     * Downloads and decodes every icon in the background, e.g. at startup.
+     */
+    public void preloadAll() {
+        for (String code : IconStore.ALL_CODES) {
+            load(code);
+        }
+    }
+}
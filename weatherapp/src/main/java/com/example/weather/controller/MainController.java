@@ -1,10 +1,24 @@
 package com.example.weather.controller;
 
-import com.example.weather.model.ForecastEntry;
+import com.example.weather.model.AggregateSeries;
+import com.example.weather.model.City;
+import com.example.weather.model.ForecastSeries;
 import com.example.weather.model.WeatherData;
+import com.example.weather.service.CityIndex;
+import com.example.weather.service.CoordinateTable;
+import com.example.weather.service.ForecastCsv;
+import com.example.weather.service.HttpClientTransport;
+import com.example.weather.service.IconStore;
+import com.example.weather.service.ObservationStore;
+import com.example.weather.service.RefreshScheduler;
+import com.example.weather.service.SeriesAggregator;
+import com.example.weather.service.SeriesExporter;
+import com.example.weather.service.TaskRunner;
 import com.example.weather.service.WeatherService;
 import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.chart.CategoryAxis;
 import javafx.scene.chart.LineChart;
@@ -14,25 +28,26 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
+import javafx.scene.control.MenuItem;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
+import javax.management.JMException;
 import java.io.BufferedWriter;
-import java.io.InputStream;
-import java.net.URL;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Controller for the main WeatherApp UI defined in main.fxml.
@@ -69,9 +84,47 @@ public class MainController {
     /** Label for showing the last data update timestamp. */
     @FXML private Label statusLabel;
 
+    /** Whole days shown by the 3-day forecast dialog, chart and daily CSV. */
+    private static final int FORECAST_DAYS = 3;
+    // Per-user directory for the coordinate table and the response cache
+    private static final Path DATA_DIR = Paths.get(System.getProperty("user.home"), ".weatherapp");
+
+    // History of every current-weather response, one file pair per city
+    private final ObservationStore observations = new ObservationStore(DATA_DIR.resolve("observations"));
+
+    // Coordinates reported by the API, so UV lookups need not wait for the weather
+    private final CoordinateTable coordinates = new CoordinateTable(DATA_DIR.resolve("coordinates.properties"));
+
+    // Names, aliases and IDs of well-known cities, for canonical names and suggestions
+    private final CityIndex cityIndex = CityIndex.bundled();
+
+    // Suggestions shown below the city box while typing
+    private final ContextMenu suggestions = new ContextMenu();
+
     // Service layer for API calls
-    private final WeatherService service =
-        new WeatherService("df9e5eed0b0c211c0136dbf89522f1b7");
+    private final WeatherService service = WeatherService.builder("df9e5eed0b0c211c0136dbf89522f1b7")
+        .coordinates(coordinates)
+        .cityIndex(cityIndex)
+        .diskCache(DATA_DIR.resolve("responses.cache"))
+        .refreshAfter(Duration.ofMinutes(10))
+        .cacheTtl(Duration.ofMinutes(30))
+        // free OpenWeatherMap plans allow 60 calls per minute
+        .rateLimit(1, 10)
+        .retry(3, Duration.ofMillis(500), Duration.ofSeconds(5))
+        .circuitBreaker(5, Duration.ofMinutes(1))
+        .hedge(95, 0.1)
+        .uvGrid(5, true)
+        .staleIfError(Duration.ofHours(6))
+        .observationStore(observations)
+        .build();
+
+    // Background work of all actions; callbacks run on the FX thread
+    private final TaskRunner tasks = new TaskRunner(TaskRunner.DEFAULT_MAX_CONCURRENCY, Platform::runLater);
+
+    // Weather icons, downloaded once into the data directory
+    private final IconLoader icons = new IconLoader(
+        new IconStore(DATA_DIR.resolve("icons"), IconStore.ICON_BASE, new HttpClientTransport()),
+        ForkJoinPool.commonPool());
 
     // Current unit system: "metric" or "imperial"
     private String units = "metric";
@@ -82,8 +135,8 @@ public class MainController {
     private final DateTimeFormatter stampFmt =
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
 
-    // Scheduler for auto-refresh
-    private ScheduledExecutorService scheduler;
+    // Auto-refresh of every city in the combo box
+    private final RefreshScheduler refresher = new RefreshScheduler(service, Duration.ofMinutes(15));
 
     /**
      * Initializes UI components and sets up the auto-refresh & dark-mode listeners.
@@ -93,17 +146,37 @@ public class MainController {
     public void initialize() {
         cityBox.setEditable(true);
         cityBox.getItems().add("Prague");
-        scheduler = Executors.newSingleThreadScheduledExecutor();
+        cityBox.getEditor().textProperty().addListener((obs, old, text) -> suggest(text));
+        cityBox.getEditor().focusedProperty().addListener((obs, old, focused) -> {
+            if (!focused) {
+                suggestions.hide();
+            }
+        });
+        refresher.setWatched(cityBox.getItems());
+        cityBox.getItems().addListener((ListChangeListener<String>) change ->
+            refresher.setWatched(List.copyOf(cityBox.getItems())));
+        refresher.addListener((city, data, err) -> {
+            // the reload ran off the FX thread; redisplay from the now fresh cache
+            if (err == null) {
+                Platform.runLater(() -> {
+                    if (city.equals(selectedCity())) {
+                        onFetch();
+                    }
+                });
+            }
+        });
+        try {
+            service.metrics().registerMBean("com.example.weather:type=WeatherService");
+        } catch (JMException ignored) {
+            // metrics stay available through service.metrics().dump()
+        }
+        icons.preloadAll();
 
         autoRefreshCheck.selectedProperty().addListener((obs, old, val) -> {
             if (val) {
-                scheduler.scheduleAtFixedRate(
-                    () -> Platform.runLater(this::onFetch),
-                    15, 15, TimeUnit.MINUTES
-                );
+                refresher.start();
             } else {
-                scheduler.shutdownNow();
-                scheduler = Executors.newSingleThreadScheduledExecutor();
+                refresher.stop();
             }
         });
 
@@ -112,9 +185,45 @@ public class MainController {
         });
     }
 
+    /**
+     * @return the city in the combo box under its canonical name if the city
+     *         index knows it, otherwise as typed without surrounding spaces
+     */
+    private String selectedCity() {
+        String typed = cityBox.getEditor().getText().trim();
+        City known = cityIndex.resolve(typed);
+        return known != null ? known.getName() : typed;
+    }
+
+    /**
+     * Shows the known cities starting with the typed text below the city
+     * box; picking one fetches its weather.
+     */
+    private void suggest(String text) {
+        List<City> matches = cityBox.getEditor().isFocused() ? cityIndex.complete(text, 8) : List.of();
+        if (matches.isEmpty() || (matches.size() == 1 && matches.get(0).getName().equals(text.trim()))) {
+            suggestions.hide();
+            return;
+        }
+        suggestions.getItems().clear();
+        for (City c : matches) {
+            MenuItem item = new MenuItem(c.toString());
+            item.setOnAction(e -> {
+                cityBox.getEditor().setText(c.getName());
+                cityBox.getEditor().end();
+                onFetch();
+            });
+            suggestions.getItems().add(item);
+        }
+        if (!suggestions.isShowing()) {
+            suggestions.show(cityBox, Side.BOTTOM, 0, 0);
+        }
+    }
+
     /**
      * Toggles temperature units between metric and imperial.
-     * Updates the unitBtn text accordingly.
+     * Updates the unitBtn text accordingly and redisplays the current city,
+     * which is served from the cache and converted locally.
      */
     @FXML
     private void onToggleUnit() {
@@ -125,6 +234,7 @@ public class MainController {
             units = "metric";
             unitBtn.setText("°C → °F");
         }
+        onFetch();
     }
 
     /**
@@ -148,83 +258,68 @@ public class MainController {
      */
     @FXML
     private void onFetch() {
-        String city = cityBox.getEditor().getText().trim();
+        String city = selectedCity();
         if (city.isEmpty()) return;
         if (!cityBox.getItems().contains(city)) cityBox.getItems().add(city);
+        refresher.setVisible(city);
+
+        String units = this.units;
+        tasks.run("current", () -> service.getCurrentBundle(city, units), cc -> {
+                WeatherData wd = cc.getWeather();
+                double uvi = cc.getUvIndex();
+                tempLabel.setText(String.format("%.1f°%s",
+                    wd.getTemp(), units.equals("metric")?"C":"F"
+                ));
+                feelsLabel.setText(String.format("%.1f°%s",
+                    wd.getFeelsLike(), units.equals("metric")?"C":"F"
+                ));
+                windLabel.setText(String.format("%.1f %s",
+                    wd.getWindSpeed(), units.equals("metric")?"m/s":"mph"
+                ));
+                humLabel.setText(wd.getHumidity() + "%");
+                presLabel.setText(wd.getPressure() + " hPa");
+                uvLabel.setText(String.format("%.1f", uvi));
+                sunLabel.setText(
+                    timeFmt.format(Instant.ofEpochSecond(wd.getSunrise()))
+                    + " / "
+                    + timeFmt.format(Instant.ofEpochSecond(wd.getSunset()))
+                );
 
-        new Thread(() -> {
-            try {
-                WeatherData wd = service.getCurrent(city, units);
-                double uvi = service.fetchUVIndex(wd.getLat(), wd.getLon());
+                // update timestamp
+                statusLabel.setText(stampFmt.format(Instant.now()));
 
-                Platform.runLater(() -> {
-                    tempLabel.setText(String.format("%.1f°%s",
-                        wd.getTemp(), units.equals("metric")?"C":"F"
-                    ));
-                    feelsLabel.setText(String.format("%.1f°%s",
-                        wd.getFeelsLike(), units.equals("metric")?"C":"F"
-                    ));
-                    windLabel.setText(String.format("%.1f %s",
-                        wd.getWindSpeed(), units.equals("metric")?"m/s":"mph"
-                    ));
-                    humLabel.setText(wd.getHumidity() + "%");
-                    presLabel.setText(wd.getPressure() + " hPa");
-                    uvLabel.setText(String.format("%.1f", uvi));
-                    sunLabel.setText(
-                        timeFmt.format(Instant.ofEpochSecond(wd.getSunrise()))
-                        + " / "
-                        + timeFmt.format(Instant.ofEpochSecond(wd.getSunset()))
-                    );
-
-                    // update timestamp
-                    statusLabel.setText(stampFmt.format(Instant.now()));
-
-                    try (InputStream is = new URL(
-                          "https://openweathermap.org/img/wn/"
-                          + wd.getIconCode() + "@2x.png"
-                        ).openStream()
-                    ) {
-                        iconView.setImage(new Image(is));
-                    } catch (Exception ignored) {}
-                });
-            } catch (Exception ex) {
-                Platform.runLater(() ->
-                    new Alert(Alert.AlertType.ERROR, ex.getMessage()).showAndWait()
-                );
-            }
-        }).start();
+                if (wd.getIconCode() != null) {
+                    icons.show(wd.getIconCode(), iconView::setImage);
+                }
+            }, this::showError);
     }
 
     /**
-     * Fetches and displays a 3-day (24-hour interval) forecast dialog.
+     * Fetches and displays a 3-day (24-hour interval) forecast dialog. Days
+     * are local calendar days the forecast covers completely.
      */
     @FXML
     private void onForecast3() {
-        String city = cityBox.getEditor().getText().trim();
+        String city = selectedCity();
         if (city.isEmpty()) return;
-        new Thread(() -> {
-            try {
-                List<ForecastEntry> list = service.getForecast(city, units, 24);
+        String units = this.units;
+        tasks.run("forecast3", () -> {
+                ZoneId zone = ZoneId.systemDefault();
+                AggregateSeries daily = dailyForecast(city, units, zone);
+                String unit = units.equals("metric") ? "C" : "F";
                 StringBuilder sb = new StringBuilder();
                 DateTimeFormatter fmt = DateTimeFormatter
-                  .ofPattern("yyyy-MM-dd HH:mm")
-                  .withZone(ZoneId.systemDefault());
-                for (int i = 0; i < list.size(); i += 8) {
-                    ForecastEntry e = list.get(i);
-                    sb.append(fmt.format(Instant.ofEpochSecond(e.getTimestamp())))
-                      .append(String.format(": %.1f°%s%n",
-                          e.getTemp(), units.equals("metric")?"C":"F"
+                  .ofPattern("yyyy-MM-dd")
+                  .withZone(zone);
+                for (int i = 0; i < daily.size(); i++) {
+                    sb.append(fmt.format(Instant.ofEpochSecond(daily.startAt(i))))
+                      .append(String.format(": %.1f / %.1f / %.1f°%s (min / mean / max)%n",
+                          daily.minAt(i), daily.meanAt(i), daily.maxAt(i), unit
                       ));
                 }
-                Platform.runLater(() ->
-                    new Alert(Alert.AlertType.INFORMATION, sb.toString()).showAndWait()
-                );
-            } catch (Exception ex) {
-                Platform.runLater(() ->
-                    new Alert(Alert.AlertType.ERROR, ex.getMessage()).showAndWait()
-                );
-            }
-        }).start();
+                return sb.toString();
+            }, text -> new Alert(Alert.AlertType.INFORMATION, text).showAndWait(),
+            this::showError);
     }
 
     /**
@@ -232,30 +327,41 @@ public class MainController {
      */
     @FXML
     private void onForecastHourly() {
-        String city = cityBox.getEditor().getText().trim();
+        String city = selectedCity();
         if (city.isEmpty()) return;
-        new Thread(() -> {
-            try {
-                List<ForecastEntry> list = service.getForecast(city, units, 4);
+        String units = this.units;
+        tasks.run("forecastHourly", () -> {
+                ForecastSeries series = service.getForecastSeries(city, units, 4);
                 StringBuilder sb = new StringBuilder();
                 DateTimeFormatter fmt = DateTimeFormatter
                   .ofPattern("HH:mm")
                   .withZone(ZoneId.systemDefault());
-                for (ForecastEntry e : list) {
-                    sb.append(fmt.format(Instant.ofEpochSecond(e.getTimestamp())))
+                for (int i = 0; i < series.size(); i++) {
+                    sb.append(fmt.format(Instant.ofEpochSecond(series.timestampAt(i))))
                       .append(String.format(": %.1f°%s%n",
-                          e.getTemp(), units.equals("metric")?"C":"F"
+                          series.tempAt(i), units.equals("metric")?"C":"F"
                       ));
                 }
-                Platform.runLater(() ->
-                    new Alert(Alert.AlertType.INFORMATION, sb.toString()).showAndWait()
-                );
-            } catch (Exception ex) {
-                Platform.runLater(() ->
-                    new Alert(Alert.AlertType.ERROR, ex.getMessage()).showAndWait()
-                );
-            }
-        }).start();
+                return sb.toString();
+            }, text -> new Alert(Alert.AlertType.INFORMATION, text).showAndWait(),
+            this::showError);
+    }
+
+    /**
+     * Stops background work and writes out pending state; called when the
+     * application exits. The refresher and the task threads go first, so no
+     * task is left using the service or the stores once they are closed.
+     */
+    public void shutdown() {
+        refresher.close();
+        tasks.close();
+        coordinates.close();
+        service.close();
+        try {
+            observations.close();
+        } catch (IOException ignored) {
+            // every append has already reached the file
+        }
     }
 
     /**
@@ -273,42 +379,86 @@ public class MainController {
     }
 
     /**
-     * Exports the 3-day forecast to a CSV file in the user's home directory.
-     * Columns: datetime, temperature.
+     * Exports the 3-day forecast to CSV files in the user's home directory:
+     * one with every point (datetime, temperature) and one with daily
+     * statistics (start, count, min, mean, max, median) of the same whole
+     * local days the dialog and chart show.
      */
     @FXML
     private void onExportCsv() {
-        String city = cityBox.getEditor().getText().trim();
+        String city = selectedCity();
         if (city.isEmpty()) return;
-        new Thread(() -> {
-            try {
-                List<ForecastEntry> list = service.getForecast(city, units, 24);
+        String units = this.units;
+        tasks.run("export", () -> {
+                ForecastSeries series = service.getForecastSeries(city, units, 24);
                 Path out = Paths.get(
                     System.getProperty("user.home"),
                     city + "_forecast.csv"
                 );
+                Path daily = out.resolveSibling(city + "_forecast_daily.csv");
+                ZoneId zone = ZoneId.systemDefault();
                 try (BufferedWriter w = Files.newBufferedWriter(out)) {
-                    w.write("datetime,temp" + System.lineSeparator());
-                    DateTimeFormatter fmt = DateTimeFormatter
-                      .ofPattern("yyyy-MM-dd HH:mm")
-                      .withZone(ZoneId.systemDefault());
-                    for (ForecastEntry e : list) {
-                        w.write(fmt.format(Instant.ofEpochSecond(e.getTimestamp()))
-                                + "," + e.getTemp()
-                                + System.lineSeparator());
+                    ForecastCsv.write(series, w, zone);
+                }
+                AggregateSeries summary = dailyForecast(city, units, zone, 50);
+                try (BufferedWriter w = Files.newBufferedWriter(daily)) {
+                    ForecastCsv.write(summary, w, zone);
+                }
+                return out + " and " + daily;
+            }, out -> new Alert(Alert.AlertType.INFORMATION,
+                              "Exported to " + out
+                    ).showAndWait(),
+            this::showError);
+    }
+
+    /**
+     * Exports the recorded observations of every city in the combo box to a
+     * gzipped CSV file in the user's home directory, writing each block of
+     * the history as it is read so the export never holds a whole history.
+     */
+    @FXML
+    private void onExportHistory() {
+        List<String> cities = List.copyOf(cityBox.getItems());
+        tasks.run("exportHistory", () -> {
+                Path out = Paths.get(System.getProperty("user.home"), "weather_history.csv.gz");
+                try (OutputStream file = Files.newOutputStream(out);
+                     SeriesExporter exporter = SeriesExporter.observations(file,
+                         SeriesExporter.Format.CSV, ZoneId.systemDefault(), true)) {
+                    for (String city : cities) {
+                        observations.scan(city, Long.MIN_VALUE, Long.MAX_VALUE,
+                            block -> exporter.write(city, block));
                     }
                 }
-                Platform.runLater(() ->
-                    new Alert(Alert.AlertType.INFORMATION,
-                              "Exported to " + out.toString()
-                    ).showAndWait()
-                );
-            } catch (Exception ex) {
-                Platform.runLater(() ->
-                    new Alert(Alert.AlertType.ERROR, ex.getMessage()).showAndWait()
-                );
-            }
-        }).start();
+                return out;
+            }, out -> new Alert(Alert.AlertType.INFORMATION,
+                              "Exported to " + out
+                    ).showAndWait(),
+            this::showError);
+    }
+
+    /**
+     * Exports the full forecast of every city in the combo box to a gzipped
+     * CSV file in the user's home directory, one city at a time.
+     */
+    @FXML
+    private void onExportForecasts() {
+        List<String> cities = List.copyOf(cityBox.getItems());
+        String units = this.units;
+        tasks.run("exportForecasts", () -> {
+                Path out = Paths.get(System.getProperty("user.home"), "weather_forecasts.csv.gz");
+                try (OutputStream file = Files.newOutputStream(out);
+                     SeriesExporter exporter = SeriesExporter.forecasts(file,
+                         SeriesExporter.Format.CSV, ZoneId.systemDefault(), true)) {
+                    for (String city : cities) {
+                        exporter.write(city,
+                            service.getForecastSeries(city, units, WeatherService.FORECAST_HORIZON));
+                    }
+                }
+                return out;
+            }, out -> new Alert(Alert.AlertType.INFORMATION,
+                              "Exported to " + out
+                    ).showAndWait(),
+            this::showError);
     }
 
     /**
@@ -316,14 +466,12 @@ public class MainController {
      */
     @FXML
     private void onShowHourlyChart() {
-        String city = cityBox.getEditor().getText().trim();
+        String city = selectedCity();
         if (city.isEmpty()) return;
 
-        new Thread(() -> {
-            try {
-                List<ForecastEntry> list = service.getForecast(city, units, 4);
-
-                // build chart data
+        String units = this.units;
+        tasks.run("hourlyChart", () -> service.getForecastSeries(city, units, 4), forecast -> {
+                // build chart data (on the FX thread, like any scene graph change)
                 CategoryAxis xAxis = new CategoryAxis();
                 xAxis.setLabel("Time");
                 NumberAxis yAxis = new NumberAxis();
@@ -332,38 +480,34 @@ public class MainController {
                 chart.setTitle("Next 4 Points (Hourly)");
 
                 XYChart.Series<String,Number> series = new XYChart.Series<>();
-                for (ForecastEntry e : list) {
-                    String t = timeFmt.format(Instant.ofEpochSecond(e.getTimestamp()));
-                    series.getData().add(new XYChart.Data<>(t, e.getTemp()));
+                for (int i = 0; i < forecast.size(); i++) {
+                    String t = timeFmt.format(Instant.ofEpochSecond(forecast.timestampAt(i)));
+                    series.getData().add(new XYChart.Data<>(t, forecast.tempAt(i)));
                 }
                 chart.getData().add(series);
 
-                Platform.runLater(() -> {
-                    Stage s = new Stage();
-                    s.setTitle("Hourly Forecast Chart");
-                    Scene scene = new Scene(chart, 600, 400);
-                    scene.getStylesheets().add(
-                      getClass().getResource("/styles/app.css").toExternalForm()
-                    );
-                    s.setScene(scene);
-                    s.show();
-                });
-            } catch (Exception ignored) {}
-        }).start();
+                Stage s = new Stage();
+                s.setTitle("Hourly Forecast Chart");
+                Scene scene = new Scene(chart, 600, 400);
+                scene.getStylesheets().add(
+                  getClass().getResource("/styles/app.css").toExternalForm()
+                );
+                s.setScene(scene);
+                s.show();
+            }, ignored -> {});
     }
 
     /**
-     * Displays a simple LineChart of a 3-day (daily) forecast using every 8th point.
+     * Displays a LineChart of the daily min, mean and max of a 3-day forecast.
      */
     @FXML
     private void onShowDailyChart() {
-        String city = cityBox.getEditor().getText().trim();
+        String city = selectedCity();
         if (city.isEmpty()) return;
 
-        new Thread(() -> {
-            try {
-                List<ForecastEntry> list = service.getForecast(city, units, 24);
-
+        String units = this.units;
+        ZoneId zone = ZoneId.systemDefault();
+        tasks.run("dailyChart", () -> dailyForecast(city, units, zone), daily -> {
                 CategoryAxis xAxis = new CategoryAxis();
                 xAxis.setLabel("Date");
                 NumberAxis yAxis = new NumberAxis();
@@ -371,29 +515,53 @@ public class MainController {
                 LineChart<String,Number> chart = new LineChart<>(xAxis,yAxis);
                 chart.setTitle("3-Day Forecast Chart");
 
-                XYChart.Series<String,Number> series = new XYChart.Series<>();
+                XYChart.Series<String,Number> min = new XYChart.Series<>();
+                XYChart.Series<String,Number> mean = new XYChart.Series<>();
+                XYChart.Series<String,Number> max = new XYChart.Series<>();
+                min.setName("Min");
+                mean.setName("Mean");
+                max.setName("Max");
                 DateTimeFormatter fmt = DateTimeFormatter
                   .ofPattern("yyyy-MM-dd")
-                  .withZone(ZoneId.systemDefault());
-                for (int i = 0; i < list.size(); i += 8) {
-                    ForecastEntry e = list.get(i);
-                    String d = fmt.format(Instant.ofEpochSecond(e.getTimestamp()));
-                    series.getData().add(new XYChart.Data<>(d, e.getTemp()));
+                  .withZone(zone);
+                for (int i = 0; i < daily.size(); i++) {
+                    String d = fmt.format(Instant.ofEpochSecond(daily.startAt(i)));
+                    min.getData().add(new XYChart.Data<>(d, daily.minAt(i)));
+                    mean.getData().add(new XYChart.Data<>(d, daily.meanAt(i)));
+                    max.getData().add(new XYChart.Data<>(d, daily.maxAt(i)));
                 }
-                chart.getData().add(series);
+                chart.getData().add(min);
+                chart.getData().add(mean);
+                chart.getData().add(max);
+
+                Stage s = new Stage();
+                s.setTitle("3-Day Forecast Chart");
+                Scene scene = new Scene(chart, 600, 400);
+                scene.getStylesheets().add(
+                  getClass().getResource("/styles/app.css").toExternalForm()
+                );
+                s.setScene(scene);
+                s.show();
+            }, ignored -> {});
+    }
 
-                Platform.runLater(() -> {
-                    Stage s = new Stage();
-                    s.setTitle("3-Day Forecast Chart");
-                    Scene scene = new Scene(chart, 600, 400);
-                    scene.getStylesheets().add(
-                      getClass().getResource("/styles/app.css").toExternalForm()
-                    );
-                    s.setScene(scene);
-                    s.show();
-                });
-            } catch (Exception ignored) {}
-        }).start();
+    /**
+     * Aggregates the full forecast horizon into the local calendar days it
+     * covers completely, so the partial days at either end are left out,
+     * and keeps the first {@value #FORECAST_DAYS} of them.
+     */
+    private AggregateSeries dailyForecast(String city, String units, ZoneId zone, double... percentiles)
+            throws Exception {
+        return SeriesAggregator.aggregateWhole(
+            service.getForecastSeries(city, units, WeatherService.FORECAST_HORIZON),
+            SeriesAggregator.Window.DAY, zone, percentiles).head(FORECAST_DAYS);
+    }
+
+    /**
+     * Shows a background failure in an error dialog; runs on the FX thread.
+     */
+    private void showError(Throwable ex) {
+        new Alert(Alert.AlertType.ERROR, ex.getMessage()).showAndWait();
     }
 
 }
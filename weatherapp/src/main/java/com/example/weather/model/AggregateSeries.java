@@ -0,0 +1,149 @@
+// src/main/java/com/example/weather/model/AggregateSeries.java
+package com.example.weather.model;
+
+import java.util.Arrays;
+
+/**
+ * Summary statistics of a time series per calendar window (e.g. per day):
+ * the window start, the number of values, their min, max and mean, and any
+ * requested percentiles, as parallel primitive columns.
+ *
+ * Series are immutable; the arrays are owned by the series.
+ */
+public final class AggregateSeries {
+
+    private final long[] starts;
+    private final int[] counts;
+    private final double[] min;
+    private final double[] max;
+    private final double[] mean;
+    private final double[] percentiles;
+    // percentileValues[k][i]: percentiles[k] of window i
+    private final double[][] percentileValues;
+    private final int length;
+
+    /**
+     * Wraps the first {@code length} values of the given columns without copying.
+     *
+     * @param starts           the window starts in seconds since the epoch
+     * @param counts           the number of values in each window, at least 1
+     * @param min              the lowest value of each window
+     * @param max              the highest value of each window
+     * @param mean             the mean value of each window
+     * @param percentiles      the percentiles computed, from 0 to 100
+     * @param percentileValues one column per entry of {@code percentiles}
+     * @param length           the number of windows
+     */
+    public AggregateSeries(long[] starts, int[] counts, double[] min, double[] max, double[] mean,
+                           double[] percentiles, double[][] percentileValues, int length) {
+        if (percentiles.length != percentileValues.length) {
+            throw new IllegalArgumentException(
+                percentiles.length + " percentiles but " + percentileValues.length + " columns");
+        }
+        boolean fits = length >= 0 && length <= starts.length && length <= counts.length
+            && length <= min.length && length <= max.length && length <= mean.length;
+        for (double[] column : percentileValues) {
+            fits &= length <= column.length;
+        }
+        if (!fits) {
+            throw new IllegalArgumentException("length " + length + " exceeds the column size");
+        }
+        this.starts = starts;
+        this.counts = counts;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.percentiles = percentiles;
+        this.percentileValues = percentileValues;
+        this.length = length;
+    }
+
+    /**
+     * @return the number of windows; windows without values are left out
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * @param n the most windows to keep
+     * @return the first {@code n} windows of this series, sharing its columns
+     */
+    public AggregateSeries head(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative window count: " + n);
+        }
+        return n >= length ? this
+            : new AggregateSeries(starts, counts, min, max, mean, percentiles, percentileValues, n);
+    }
+
+    /**
+     * @param i the index of the window, from 0 to {@code size() - 1}
+     * @return the start of the window in seconds since the epoch
+     */
+    public long startAt(int i) {
+        return starts[check(i)];
+    }
+
+    /**
+     * @param i the index of the window
+     * @return how many values fell into the window
+     */
+    public int countAt(int i) {
+        return counts[check(i)];
+    }
+
+    /**
+     * @param i the index of the window
+     * @return the lowest value in the window
+     */
+    public double minAt(int i) {
+        return min[check(i)];
+    }
+
+    /**
+     * @param i the index of the window
+     * @return the highest value in the window
+     */
+    public double maxAt(int i) {
+        return max[check(i)];
+    }
+
+    /**
+     * @param i the index of the window
+     * @return the mean of the values in the window
+     */
+    public double meanAt(int i) {
+        return mean[check(i)];
+    }
+
+    /**
+     * @return a copy of the percentiles this series holds, in the order requested
+     */
+    public double[] percentiles() {
+        return percentiles.clone();
+    }
+
+    /**
+     * @param i          the index of the window
+     * @param percentile one of {@link #percentiles()}
+     * @return the nearest-rank percentile of the values in the window
+     * @throws IllegalArgumentException if the percentile was not computed
+     */
+    public double percentileAt(int i, double percentile) {
+        for (int k = 0; k < percentiles.length; k++) {
+            if (percentiles[k] == percentile) {
+                return percentileValues[k][check(i)];
+            }
+        }
+        throw new IllegalArgumentException(
+            "percentile " + percentile + " not in " + Arrays.toString(percentiles));
+    }
+
+    private int check(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException("index " + i + " of " + length);
+        }
+        return i;
+    }
+}
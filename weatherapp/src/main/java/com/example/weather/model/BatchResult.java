@@ -0,0 +1,62 @@
+package com.example.weather.model;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a multi-city lookup: the values that could be fetched, the
+ * failures for the rest, and how long the whole batch took.
+ *
+ * @param <T> the per-city value type
+ */
+public class BatchResult<T> {
+
+    /** Successful lookups by city, in request order. */
+    private final Map<String, T> results;
+
+    /** Failed lookups by city, in request order. */
+    private final Map<String, Throwable> errors;
+
+    /** Wall-clock time from starting the batch until the last lookup finished. */
+    private final Duration elapsed;
+
+    /**
+     * @param results successful lookups by city
+     * @param errors  failed lookups by city
+     * @param elapsed time the batch took
+     */
+    public BatchResult(Map<String, T> results, Map<String, Throwable> errors, Duration elapsed) {
+        this.results = Collections.unmodifiableMap(results);
+        this.errors = Collections.unmodifiableMap(errors);
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return the successful lookups by city
+     */
+    public Map<String, T> getResults() {
+        return results;
+    }
+
+    /**
+     * @return the failed lookups by city
+     */
+    public Map<String, Throwable> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the time the batch took
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return {@code true} if every lookup succeeded
+     */
+    public boolean isComplete() {
+        return errors.isEmpty();
+    }
+}
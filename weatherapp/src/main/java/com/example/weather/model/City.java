@@ -0,0 +1,82 @@
+package com.example.weather.model;
+
+/**
+ * A city known to the local city index: its OpenWeatherMap ID, canonical
+ * name, country, coordinates and population (used to rank suggestions).
+ */
+public final class City {
+
+    private final long id;
+    private final String name;
+    private final String country;
+    private final double lat;
+    private final double lon;
+    private final long population;
+
+    /**
+     * @param id         the OpenWeatherMap city ID
+     * @param name       the canonical (English) name
+     * @param country    the ISO 3166 alpha-2 country code
+     * @param lat        the latitude
+     * @param lon        the longitude
+     * @param population the approximate population
+     */
+    public City(long id, String name, String country, double lat, double lon, long population) {
+        this.id = id;
+        this.name = name;
+        this.country = country;
+        this.lat = lat;
+        this.lon = lon;
+        this.population = population;
+    }
+
+    /**
+     * @return the OpenWeatherMap city ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return the canonical name, e.g. "Prague"
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the ISO 3166 alpha-2 country code, e.g. "CZ"
+     */
+    public String getCountry() {
+        return country;
+    }
+
+    /**
+     * @return the latitude
+     */
+    public double getLat() {
+        return lat;
+    }
+
+    /**
+     * @return the longitude
+     */
+    public double getLon() {
+        return lon;
+    }
+
+    /**
+     * @return the approximate population
+     */
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * @return the name and country, e.g. "Prague, CZ"
+     */
+    @Override
+    public String toString() {
+        return name + ", " + country;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.weather.model;
+
+/**
+ * The current weather for a city together with its UV index, i.e. everything
+ * the main view shows after a refresh.
+ */
+public class CurrentConditions {
+
+    /** Current weather as returned by the {@code weather} endpoint. */
+    private final WeatherData weather;
+
+    /** UV index at the city's coordinates. */
+    private final double uvIndex;
+
+    /**
+     * @param weather the current weather
+     * @param uvIndex the UV index at the city's coordinates
+     */
+    public CurrentConditions(WeatherData weather, double uvIndex) {
+        this.weather = weather;
+        this.uvIndex = uvIndex;
+    }
+
+    /**
+     * @return the current weather
+     */
+    public WeatherData getWeather() {
+        return weather;
+    }
+
+    /**
+     * @return the UV index
+     */
+    public double getUvIndex() {
+        return uvIndex;
+    }
+}
@@ -0,0 +1,244 @@
+// src/main/java/com/example/weather/model/ForecastSeries.java
+package com.example.weather.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A forecast as two parallel primitive columns: epoch-second timestamps and
+ * temperatures.
+ *
+ * Series are immutable. {@link #slice}, {@link #between}, {@link #every} and
+ * {@link #daily} return views over the same arrays, so taking a window or a daily sample
+ * never copies or allocates per data point.
+ */
+public final class ForecastSeries {
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final long[] timestamps;
+    private final double[] temps;
+    private final int offset;
+    private final int length;
+    private final int stride;
+
+    /**
+     * Wraps the first {@code length} values of the given columns without copying.
+     * The arrays are owned by the series afterwards and must not be modified.
+     *
+     * @param timestamps the forecast times in seconds since the epoch
+     * @param temps      the temperatures, index-aligned with {@code timestamps}
+     * @param length     the number of valid values in both arrays
+     */
+    public ForecastSeries(long[] timestamps, double[] temps, int length) {
+        this(timestamps, temps, 0, length, 1);
+        if (length < 0 || length > timestamps.length || length > temps.length) {
+            throw new IllegalArgumentException("length " + length + " exceeds the column size");
+        }
+    }
+
+    private ForecastSeries(long[] timestamps, double[] temps, int offset, int length, int stride) {
+        this.timestamps = timestamps;
+        this.temps = temps;
+        this.offset = offset;
+        this.length = length;
+        this.stride = stride;
+    }
+
+    /**
+     * Copies a list of entries into a new series.
+     *
+     * @param entries the forecast entries
+     * @return a series holding the same values in the same order
+     */
+    public static ForecastSeries of(List<ForecastEntry> entries) {
+        int n = entries.size();
+        long[] ts = new long[n];
+        double[] t = new double[n];
+        for (int i = 0; i < n; i++) {
+            ForecastEntry e = entries.get(i);
+            ts[i] = e.getTimestamp();
+            t[i] = e.getTemp();
+        }
+        return new ForecastSeries(ts, t, n);
+    }
+
+    /**
+     * @return the number of data points in this series
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * @param i the index of the data point, from 0 to {@code size() - 1}
+     * @return the forecast time in seconds since the epoch
+     */
+    public long timestampAt(int i) {
+        return timestamps[index(i)];
+    }
+
+    /**
+     * @param i the index of the data point, from 0 to {@code size() - 1}
+     * @return the temperature (Celsius or Fahrenheit, depending on units)
+     */
+    public double tempAt(int i) {
+        return temps[index(i)];
+    }
+
+    private int index(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException("index " + i + " of " + length);
+        }
+        return offset + i * stride;
+    }
+
+    /**
+     * Returns a view of the data points {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * @param from the first index of the view
+     * @param to   one past the last index of the view
+     * @return the view
+     */
+    public ForecastSeries slice(int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("slice " + from + ".." + to + " of " + length);
+        }
+        return new ForecastSeries(timestamps, temps, offset + from * stride, to - from, stride);
+    }
+
+    /**
+     * Returns a view of the data points with {@code from <= timestamp < to}.
+     * The timestamps must be in ascending order, as in an API forecast.
+     *
+     * @param from the start of the window in epoch seconds, inclusive
+     * @param to   the end of the window in epoch seconds, exclusive
+     * @return the view, empty if no point falls into the window
+     */
+    public ForecastSeries between(long from, long to) {
+        int first = firstAtOrAfter(from);
+        return slice(first, Math.max(first, firstAtOrAfter(to)));
+    }
+
+    /** Binary search for the index of the first point at or after {@code t}. */
+    private int firstAtOrAfter(long t) {
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[offset + mid * stride] < t) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns a view of every {@code step}-th data point, starting with the first.
+     *
+     * @param step the distance between sampled points, at least 1
+     * @return the view
+     */
+    public ForecastSeries every(int step) {
+        if (step < 1) {
+            throw new IllegalArgumentException("step must be positive: " + step);
+        }
+        int n = (length + step - 1) / step;
+        return new ForecastSeries(timestamps, temps, offset, n, stride * step);
+    }
+
+    /**
+     * Returns a view with one data point per day, picked at the same time of
+     * day as the first point. The sampling interval is taken from the first
+     * two points (3 hours for the OpenWeatherMap forecast).
+     *
+     * @return the daily view
+     */
+    public ForecastSeries daily() {
+        if (length < 2) {
+            return this;
+        }
+        long interval = timestampAt(1) - timestampAt(0);
+        if (interval <= 0 || interval >= SECONDS_PER_DAY) {
+            return this;
+        }
+        return every((int) (SECONDS_PER_DAY / interval));
+    }
+
+    /**
+     * @return the lowest temperature, or {@code NaN} if the series is empty
+     */
+    public double min() {
+        double min = Double.NaN;
+        for (int i = 0, j = offset; i < length; i++, j += stride) {
+            if (!(temps[j] >= min)) {
+                min = temps[j];
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @return the highest temperature, or {@code NaN} if the series is empty
+     */
+    public double max() {
+        double max = Double.NaN;
+        for (int i = 0, j = offset; i < length; i++, j += stride) {
+            if (!(temps[j] <= max)) {
+                max = temps[j];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the mean temperature, or {@code NaN} if the series is empty
+     */
+    public double mean() {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (int i = 0, j = offset; i < length; i++, j += stride) {
+            sum += temps[j];
+        }
+        return sum / length;
+    }
+
+    /**
+     * Returns a new series with the same timestamps and every temperature
+     * passed through {@code f}, e.g. to convert units.
+     *
+     * @param f the function applied to each temperature
+     * @return a new compact series
+     */
+    public ForecastSeries mapTemps(DoubleUnaryOperator f) {
+        long[] ts = new long[length];
+        double[] t = new double[length];
+        for (int i = 0, j = offset; i < length; i++, j += stride) {
+            ts[i] = timestamps[j];
+            t[i] = f.applyAsDouble(temps[j]);
+        }
+        return new ForecastSeries(ts, t, length);
+    }
+
+    /**
+     * Copies this series into a list of entries, for callers that still
+     * need {@link ForecastEntry} objects.
+     *
+     * @return a new mutable list of new entries
+     */
+    public List<ForecastEntry> toEntries() {
+        List<ForecastEntry> entries = new ArrayList<>(length);
+        for (int i = 0, j = offset; i < length; i++, j += stride) {
+            ForecastEntry fe = new ForecastEntry();
+            fe.setTimestamp(timestamps[j]);
+            fe.setTemp(temps[j]);
+            entries.add(fe);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,108 @@
+// src/main/java/com/example/weather/model/ObservationSeries.java
+package com.example.weather.model;
+
+/**
+ * Recorded current-weather observations of one city as parallel primitive
+ * columns, in the order they were stored.
+ *
+ * Series are immutable; the arrays are owned by the series.
+ */
+public final class ObservationSeries {
+
+    private final long[] timestamps;
+    private final double[] temps;
+    private final double[] feelsLike;
+    private final int[] humidity;
+    private final int[] pressure;
+    private final double[] windSpeed;
+    private final int length;
+
+    /**
+     * Wraps the first {@code length} values of the given columns without copying.
+     *
+     * @param timestamps the observation times in seconds since the epoch
+     * @param temps      the temperatures in Celsius
+     * @param feelsLike  the perceived temperatures in Celsius
+     * @param humidity   the relative humidity in percent
+     * @param pressure   the pressure in hPa
+     * @param windSpeed  the wind speeds in m/s
+     * @param length     the number of valid values in every column
+     */
+    public ObservationSeries(long[] timestamps, double[] temps, double[] feelsLike,
+                             int[] humidity, int[] pressure, double[] windSpeed, int length) {
+        if (length < 0 || length > timestamps.length || length > temps.length
+                || length > feelsLike.length || length > humidity.length
+                || length > pressure.length || length > windSpeed.length) {
+            throw new IllegalArgumentException("length " + length + " exceeds the column size");
+        }
+        this.timestamps = timestamps;
+        this.temps = temps;
+        this.feelsLike = feelsLike;
+        this.humidity = humidity;
+        this.pressure = pressure;
+        this.windSpeed = windSpeed;
+        this.length = length;
+    }
+
+    /**
+     * @return the number of observations
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * @param i the index of the observation, from 0 to {@code size() - 1}
+     * @return the observation time in seconds since the epoch
+     */
+    public long timestampAt(int i) {
+        return timestamps[check(i)];
+    }
+
+    /**
+     * @param i the index of the observation
+     * @return the temperature in Celsius
+     */
+    public double tempAt(int i) {
+        return temps[check(i)];
+    }
+
+    /**
+     * @param i the index of the observation
+     * @return the perceived temperature in Celsius
+     */
+    public double feelsLikeAt(int i) {
+        return feelsLike[check(i)];
+    }
+
+    /**
+     * @param i the index of the observation
+     * @return the relative humidity in percent
+     */
+    public int humidityAt(int i) {
+        return humidity[check(i)];
+    }
+
+    /**
+     * @param i the index of the observation
+     * @return the pressure in hPa
+     */
+    public int pressureAt(int i) {
+        return pressure[check(i)];
+    }
+
+    /**
+     * @param i the index of the observation
+     * @return the wind speed in m/s
+     */
+    public double windSpeedAt(int i) {
+        return windSpeed[check(i)];
+    }
+
+    private int check(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException("index " + i + " of " + length);
+        }
+        return i;
+    }
+}
@@ -53,6 +53,41 @@ public class WeatherData {
     /** City name returned by the API. */
     private String city;
 
+    /** OpenWeather city ID, or 0 if unknown. */
+    private long cityId;
+
+    /** When the weather was measured, in Unix seconds; 0 if unknown. */
+    private long dt;
+
+    /**
+     * Creates an empty instance (used by Jackson).
+     */
+    public WeatherData() {
+    }
+
+    /**
+     * Creates a copy of another instance.
+     *
+     * @param other the instance to copy
+     */
+    public WeatherData(WeatherData other) {
+        this.temp = other.temp;
+        this.feelsLike = other.feelsLike;
+        this.humidity = other.humidity;
+        this.pressure = other.pressure;
+        this.windSpeed = other.windSpeed;
+        this.main = other.main;
+        this.description = other.description;
+        this.iconCode = other.iconCode;
+        this.sunrise = other.sunrise;
+        this.sunset = other.sunset;
+        this.lat = other.lat;
+        this.lon = other.lon;
+        this.city = other.city;
+        this.cityId = other.cityId;
+        this.dt = other.dt;
+    }
+
     /**
      * @return the temperature
      */
@@ -234,4 +269,32 @@ public class WeatherData {
     public void setCity(String city) {
         this.city = city;
     }
+
+    /**
+     * @return the OpenWeather city ID, or 0 if unknown
+     */
+    public long getCityId() {
+        return cityId;
+    }
+
+    /**
+     * @param cityId the OpenWeather city ID to set
+     */
+    public void setCityId(long cityId) {
+        this.cityId = cityId;
+    }
+
+    /**
+     * @return when the weather was measured, in Unix seconds; 0 if unknown
+     */
+    public long getDt() {
+        return dt;
+    }
+
+    /**
+     * @param dt when the weather was measured, in Unix seconds
+     */
+    public void setDt(long dt) {
+        this.dt = dt;
+    }
 }
@@ -0,0 +1,26 @@
+// src/main/java/com/example/weather/service/ApiException.java
+
+package com.example.weather.service;
+
+/**
+ * Thrown when the weather API answers with a status other than 200.
+ */
+public class ApiException extends RuntimeException {
+
+    private final int statusCode;
+
+    /**
+     * @param statusCode the HTTP status code of the response
+     */
+    public ApiException(int statusCode) {
+        super("API error: " + statusCode);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * @return the HTTP status code of the response
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
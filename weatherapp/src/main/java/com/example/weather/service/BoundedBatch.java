@@ -0,0 +1,125 @@
+// src/main/java/com/example/weather/service/BoundedBatch.java
+
+package com.example.weather.service;
+
+import com.example.weather.model.BatchResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Runs one async lookup per key with at most {@code limit} of them
+ * outstanding at a time, without parking a thread per lookup.
+ *
+ * Finished lookups start the next ones from a drain loop that only one
+ * thread runs at a time, so lookups that complete synchronously (cache hits)
+ * do not recurse.
+ *
+ * @param <T> the per-key value type
+ */
+final class BoundedBatch<T> {
+
+    private final List<String> keys;
+    private final Function<String, CompletableFuture<T>> lookup;
+    private final AtomicReferenceArray<Object> outcomes;
+    private final AtomicInteger permits;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final AtomicInteger wip = new AtomicInteger();
+    private final CompletableFuture<BatchResult<T>> done = new CompletableFuture<>();
+    private final long start = System.nanoTime();
+
+    private BoundedBatch(List<String> keys, Function<String, CompletableFuture<T>> lookup, int limit) {
+        this.keys = keys;
+        this.lookup = lookup;
+        this.outcomes = new AtomicReferenceArray<>(keys.size());
+        this.permits = new AtomicInteger(limit);
+        this.remaining = new AtomicInteger(keys.size());
+    }
+
+    /**
+     * Starts the batch.
+     *
+     * @param keys   the keys to look up; duplicates are looked up once
+     * @param lookup starts the lookup for one key
+     * @param limit  the maximum number of outstanding lookups, at least 1
+     * @return a future of the combined result, which never completes exceptionally
+     */
+    static <T> CompletableFuture<BatchResult<T>> run(Collection<String> keys,
+            Function<String, CompletableFuture<T>> lookup, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        BoundedBatch<T> batch = new BoundedBatch<>(new ArrayList<>(new LinkedHashSet<>(keys)), lookup, limit);
+        if (batch.keys.isEmpty()) {
+            batch.finish();
+        } else {
+            batch.drain();
+        }
+        return batch.done;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (permits.get() > 0 && next.get() < keys.size()) {
+                permits.decrementAndGet();
+                start(next.getAndIncrement());
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private void start(int i) {
+        CompletableFuture<T> f;
+        try {
+            f = lookup.apply(keys.get(i));
+        } catch (RuntimeException ex) {
+            f = CompletableFuture.failedFuture(ex);
+        }
+        f.whenComplete((value, err) -> {
+            outcomes.set(i, err != null ? new Failure(err) : value);
+            if (remaining.decrementAndGet() == 0) {
+                finish();
+            } else {
+                permits.incrementAndGet();
+                drain();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void finish() {
+        Map<String, T> results = new LinkedHashMap<>();
+        Map<String, Throwable> errors = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Object outcome = outcomes.get(i);
+            if (outcome instanceof Failure) {
+                errors.put(keys.get(i), ((Failure) outcome).cause);
+            } else {
+                results.put(keys.get(i), (T) outcome);
+            }
+        }
+        done.complete(new BatchResult<>(results, errors, Duration.ofNanos(System.nanoTime() - start)));
+    }
+
+    /** Marks a failed slot; unwraps the async pipeline's wrapper. */
+    private static final class Failure {
+        final Throwable cause;
+
+        Failure(Throwable err) {
+            this.cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+// src/main/java/com/example/weather/service/CircuitBreaker.java
+
+package com.example.weather.service;
+
+/**
+ * Stops calls to an upstream that keeps failing.
+ *
+ * After {@code threshold} failures in a row the breaker opens and rejects
+ * calls for {@code openNanos}. Then it lets a single trial call through:
+ * success closes it again, failure reopens it for another period.
+ */
+final class CircuitBreaker {
+
+    /** The states a breaker moves through. */
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int threshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    /**
+     * @param threshold how many failures in a row open the breaker
+     * @param openNanos how long it stays open before a trial call
+     */
+    CircuitBreaker(int threshold, long openNanos) {
+        if (threshold < 1 || openNanos <= 0) {
+            throw new IllegalArgumentException(
+                "circuit breaker needs a positive threshold and open time: " + threshold + ", " + openNanos);
+        }
+        this.threshold = threshold;
+        this.openNanos = openNanos;
+    }
+
+    /**
+     * @return whether a call may be sent now; a trial call must be followed
+     *         by {@link #onSuccess} or {@link #onFailure}
+     */
+    synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                // a trial call is already out
+                return false;
+        }
+    }
+
+    synchronized void onSuccess() {
+        failures = 0;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= threshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
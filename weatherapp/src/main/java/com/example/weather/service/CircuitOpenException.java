@@ -0,0 +1,14 @@
+// src/main/java/com/example/weather/service/CircuitOpenException.java
+
+package com.example.weather.service;
+
+/**
+ * Thrown instead of calling the weather API while recent calls have kept
+ * failing and the service is giving it time to recover.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException() {
+        super("Weather API unavailable, retrying later");
+    }
+}
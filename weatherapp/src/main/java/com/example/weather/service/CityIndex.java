@@ -0,0 +1,262 @@
+// src/main/java/com/example/weather/service/CityIndex.java
+
+package com.example.weather.service;
+
+import com.example.weather.model.City;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Local index of city names and aliases, used to turn whatever was typed
+ * ("prague", "Praha ", "PRAHA") into one canonical {@link City} and to
+ * suggest cities while typing.
+ *
+ * Names are matched after {@link #normalize normalization}: case,
+ * accents, punctuation and extra spaces do not matter. The normalized
+ * names and aliases form a trie in which every node also keeps the most
+ * populous cities below it, so a prefix lookup costs one walk down the
+ * trie however many cities share the prefix.
+ *
+ * The bundled index ({@link #bundled()}) is read from {@code /cities.tsv}:
+ * one city per line, tab-separated {@code id name country lat lon population}
+ * and optionally aliases separated by {@code |}; lines starting with
+ * {@code #} are comments. Indexes are immutable and thread-safe.
+ */
+public final class CityIndex {
+
+    /** The most suggestions {@link #complete} returns. */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Comparator<City> BY_POPULATION =
+        Comparator.comparingLong(City::getPopulation).reversed();
+
+    /** A trie node; children are sorted by their label. */
+    private static final class Node {
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        // the cities whose name or alias ends here, most populous first
+        List<City> cities = List.of();
+        // the most populous cities below this node, most populous first
+        City[] top;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node addChild(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            Node n = new Node();
+            char[] l = new char[labels.length + 1];
+            Node[] ch = new Node[children.length + 1];
+            System.arraycopy(labels, 0, l, 0, at);
+            System.arraycopy(children, 0, ch, 0, at);
+            l[at] = c;
+            ch[at] = n;
+            System.arraycopy(labels, at, l, at + 1, labels.length - at);
+            System.arraycopy(children, at, ch, at + 1, children.length - at);
+            labels = l;
+            children = ch;
+            return n;
+        }
+    }
+
+    private final Node root = new Node();
+    private final int size;
+
+    private CityIndex(List<City> cities, List<String[]> aliases) {
+        for (int i = 0; i < cities.size(); i++) {
+            City c = cities.get(i);
+            insert(normalize(c.getName()), c);
+            for (String alias : aliases.get(i)) {
+                insert(normalize(alias), c);
+            }
+        }
+        this.size = cities.size();
+        rank(root);
+    }
+
+    /**
+     * @return the index bundled with the application
+     * @throws UncheckedIOException if the bundled file is missing or unreadable
+     */
+    public static CityIndex bundled() {
+        try (InputStream is = CityIndex.class.getResourceAsStream("/cities.tsv")) {
+            if (is == null) {
+                throw new IOException("/cities.tsv not found");
+            }
+            return read(new InputStreamReader(is, StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Reads an index in the format of the bundled one.
+     *
+     * @param in the text to read; not closed
+     * @return the index
+     * @throws IOException if reading fails or a line is malformed
+     */
+    public static CityIndex read(Reader in) throws IOException {
+        BufferedReader r = new BufferedReader(in);
+        List<City> cities = new ArrayList<>();
+        List<String[]> aliases = new ArrayList<>();
+        String line;
+        int lineNo = 0;
+        while ((line = r.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] f = line.split("\t");
+            if (f.length < 6) {
+                throw new IOException("line " + lineNo + ": expected at least 6 fields: " + line);
+            }
+            try {
+                cities.add(new City(Long.parseLong(f[0]), f[1], f[2],
+                    Double.parseDouble(f[3]), Double.parseDouble(f[4]), Long.parseLong(f[5])));
+            } catch (NumberFormatException ex) {
+                throw new IOException("line " + lineNo + ": " + ex.getMessage(), ex);
+            }
+            aliases.add(f.length > 6 && !f[6].isEmpty() ? f[6].split("\\|") : new String[0]);
+        }
+        return new CityIndex(cities, aliases);
+    }
+
+    /**
+     * Folds a name to the form it is indexed under: lower case, without
+     * accents, with runs of anything but letters and digits turned into a
+     * single space and no leading or trailing space.
+     *
+     * @param name a city name
+     * @return the normalized name, e.g. {@code "ceske budejovice"}
+     */
+    public static String normalize(String name) {
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (space && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                space = false;
+                sb.append(c);
+            } else {
+                space = true;
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the number of cities in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the city a name or alias stands for. A trailing country code,
+     * as in "Prague, CZ", is checked against the city's country.
+     *
+     * @param input the text typed by the user
+     * @return the city, or {@code null} if the index does not know it
+     */
+    public City resolve(String input) {
+        String key = normalize(input);
+        Node n = find(key);
+        if (n != null && !n.cities.isEmpty()) {
+            // of several cities with one name, the most populous
+            return n.cities.get(0);
+        }
+        int space = key.lastIndexOf(' ');
+        if (space > 0 && key.length() - space == 3) {
+            n = find(key.substring(0, space));
+            String country = key.substring(space + 1);
+            for (City c : n != null ? n.cities : List.<City>of()) {
+                if (c.getCountry().equalsIgnoreCase(country)) {
+                    return c;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Suggests cities whose name or an alias starts with the given text.
+     *
+     * @param prefix the text typed so far
+     * @param limit  the most suggestions wanted, up to {@value #MAX_SUGGESTIONS}
+     * @return matching cities, most populous first; empty for a blank prefix
+     */
+    public List<City> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node n = key.isEmpty() ? null : find(key);
+        if (n == null) {
+            return List.of();
+        }
+        return List.of(n.top).subList(0, Math.min(limit, n.top.length));
+    }
+
+    private Node find(String key) {
+        Node n = root;
+        for (int i = 0; i < key.length() && n != null; i++) {
+            n = n.child(key.charAt(i));
+        }
+        return n;
+    }
+
+    private void insert(String key, City city) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Node n = root;
+        for (int i = 0; i < key.length(); i++) {
+            n = n.addChild(key.charAt(i));
+        }
+        if (!n.cities.contains(city)) {
+            List<City> cities = new ArrayList<>(n.cities);
+            cities.add(city);
+            cities.sort(BY_POPULATION);
+            n.cities = cities;
+        }
+    }
+
+    /** Fills in {@link Node#top} bottom-up. */
+    private static City[] rank(Node n) {
+        List<City> candidates = new ArrayList<>(n.cities);
+        for (Node child : n.children) {
+            for (City c : rank(child)) {
+                // a city can be reached by its name and several aliases
+                if (!candidates.contains(c)) {
+                    candidates.add(c);
+                }
+            }
+        }
+        candidates.sort(BY_POPULATION);
+        n.top = candidates.subList(0, Math.min(MAX_SUGGESTIONS, candidates.size())).toArray(new City[0]);
+        return n.top;
+    }
+}
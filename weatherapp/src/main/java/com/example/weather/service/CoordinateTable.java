@@ -0,0 +1,180 @@
+// src/main/java/com/example/weather/service/CoordinateTable.java
+
+package com.example.weather.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Remembers the coordinates the API reported for each city, so that
+ * coordinate-based requests (such as the UV index) can be sent without
+ * waiting for the current-weather response first.
+ *
+ * The table is optionally backed by a properties file ({@code city=lat,lon})
+ * that is loaded on construction. Changes are written back on a background
+ * thread {@value #SAVE_DELAY_MILLIS} ms after the first unsaved one, so that
+ * callers (typically completion callbacks of the async pipeline) never wait
+ * for the disk and a burst of new cities costs one write; {@link #flush}
+ * and {@link #close} write pending changes at once.
+ */
+public class CoordinateTable implements Closeable {
+
+    /** How long after a change the file is rewritten. */
+    static final long SAVE_DELAY_MILLIS = 1_000;
+
+    private final Map<String, double[]> coords = new ConcurrentHashMap<>();
+    private final Path file;
+    // set while a change is waiting to be saved
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    // null for tables without a file
+    private final ScheduledExecutorService saver;
+
+    /**
+     * Creates an in-memory table that is not persisted.
+     */
+    public CoordinateTable() {
+        this.file = null;
+        this.saver = null;
+    }
+
+    /**
+     * Creates a table backed by the given file, loading it if it exists.
+     * An unreadable file is treated as empty.
+     *
+     * @param file the properties file to load from and save to
+     */
+    public CoordinateTable(Path file) {
+        this.file = file;
+        ScheduledThreadPoolExecutor t = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "coordinate-table");
+            thread.setDaemon(true);
+            return thread;
+        });
+        t.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.saver = t;
+        if (Files.exists(file)) {
+            Properties props = new Properties();
+            try (Reader r = Files.newBufferedReader(file)) {
+                props.load(r);
+            } catch (IOException | IllegalArgumentException ignored) {
+                // start empty; the next remember() rewrites the file
+            }
+            for (String city : props.stringPropertyNames()) {
+                String[] parts = props.getProperty(city).split(",");
+                try {
+                    coords.put(city, new double[] {
+                        Double.parseDouble(parts[0]), Double.parseDouble(parts[1])
+                    });
+                } catch (RuntimeException ignored) {
+                    // skip malformed entries
+                }
+            }
+        }
+    }
+
+    /**
+     * @param city the city name as typed by the user
+     * @return {@code {lat, lon}} for the city, or {@code null} if unknown
+     */
+    public double[] lookup(String city) {
+        return coords.get(key(city));
+    }
+
+    /**
+     * Records the coordinates of a city, scheduling a save if they changed.
+     *
+     * @param city the city name as typed by the user
+     * @param lat  the latitude reported by the API
+     * @param lon  the longitude reported by the API
+     */
+    public void remember(String city, double lat, double lon) {
+        double[] previous = coords.put(key(city), new double[] {lat, lon});
+        if (previous == null || previous[0] != lat || previous[1] != lon) {
+            changed();
+        }
+    }
+
+    /**
+     * Forgets every entry (the backing file is rewritten empty).
+     */
+    public void clear() {
+        coords.clear();
+        changed();
+    }
+
+    /**
+     * Writes pending changes to the backing file now.
+     */
+    public void flush() {
+        if (dirty.get()) {
+            save();
+        }
+    }
+
+    /**
+     * Writes pending changes and stops the background writer. The table
+     * still answers lookups but no longer saves changes.
+     */
+    @Override
+    public void close() {
+        if (saver != null) {
+            saver.shutdown();
+        }
+        flush();
+    }
+
+    /** Schedules a save unless one is already pending. */
+    private void changed() {
+        if (saver != null && !saver.isShutdown() && dirty.compareAndSet(false, true)) {
+            try {
+                saver.schedule(this::flush, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException closing) {
+                save();
+            }
+        }
+    }
+
+    private static String key(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private synchronized void save() {
+        if (file == null) {
+            return;
+        }
+        // cleared before the snapshot, so a change during the write schedules another
+        dirty.set(false);
+        Properties props = new Properties();
+        coords.forEach((city, c) -> props.setProperty(city, c[0] + "," + c[1]));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "coords", ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp)) {
+                props.store(w, "city coordinates reported by the weather API");
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ignored) {
+            // the table is only an accelerator; lookups still work from memory
+        }
+    }
+}
@@ -0,0 +1,333 @@
+// src/main/java/com/example/weather/service/DiskResponseCache.java
+
+package com.example.weather.service;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only on-disk store of raw API response bodies, keyed by request
+ * path, that lets a freshly started application begin with a warm cache.
+ *
+ * The file starts with a magic number and version, followed by records of
+ * the form {@code keyLength:int key:utf8 fetchedAt:long bodyLength:int body}.
+ * A newer record for a key supersedes older ones; the in-memory index only
+ * points at the latest. Superseded records are dropped by compacting the
+ * file when they outweigh the live ones, on opening and whenever a write
+ * tips the balance (once there are at least {@value #COMPACT_MIN_DEAD_BYTES}
+ * bytes to reclaim). A partially written trailing record (e.g. after a
+ * crash) is cut off.
+ *
+ * {@link #putAsync} appends on a single writer thread owned by the cache,
+ * so callers on the async pipeline never wait for the disk.
+ */
+public class DiskResponseCache implements Closeable {
+
+    private static final int MAGIC = 0x57544843; // "WTHC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    // compact once superseded records outweigh live ones by this factor
+    private static final int COMPACT_RATIO = 2;
+    // ... and, while open, only once this many bytes can be reclaimed
+    static final long COMPACT_MIN_DEAD_BYTES = 1024 * 1024;
+
+    /**
+     * A stored response body with the time it was fetched.
+     */
+    public static final class Entry {
+        private final long fetchedAt;
+        private final byte[] body;
+
+        Entry(long fetchedAt, byte[] body) {
+            this.fetchedAt = fetchedAt;
+            this.body = body;
+        }
+
+        /**
+         * @return when the body was fetched, in epoch milliseconds
+         */
+        public long getFetchedAt() {
+            return fetchedAt;
+        }
+
+        /**
+         * @return the raw response body
+         */
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    /** Location of the latest record for a key. */
+    private static final class Slot {
+        final long bodyOffset;
+        final int bodyLength;
+        final long fetchedAt;
+
+        Slot(long bodyOffset, int bodyLength, long fetchedAt) {
+            this.bodyOffset = bodyOffset;
+            this.bodyLength = bodyLength;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private final Path file;
+    private final Map<String, Slot> index = new ConcurrentHashMap<>();
+    private FileChannel channel;
+    // bytes of the latest record of each key, and of superseded ones
+    private long liveBytes;
+    private long deadBytes;
+    private final ThreadPoolExecutor writer;
+
+    /**
+     * Opens (or creates) the cache file and indexes its records.
+     *
+     * @param file the cache file
+     * @throws IOException if the file cannot be read or created
+     */
+    public DiskResponseCache(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        channel = open(file);
+        liveBytes = load();
+        deadBytes = channel.size() - HEADER_BYTES - liveBytes;
+        if (channel.size() > HEADER_BYTES + COMPACT_RATIO * liveBytes) {
+            compact();
+        }
+        writer = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "disk-cache-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        writer.allowCoreThreadTimeOut(true);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Scans the file, fills the index and returns the number of live bytes.
+     * Resets files with an unknown header and truncates a torn tail.
+     */
+    private long load() throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (size < HEADER_BYTES || read(header, 0) < HEADER_BYTES
+                || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            reset();
+            return 0;
+        }
+        long pos = HEADER_BYTES;
+        ByteBuffer len = ByteBuffer.allocate(4);
+        ByteBuffer meta = ByteBuffer.allocate(12);
+        try {
+            while (pos < size) {
+                len.clear();
+                readFully(len, pos);
+                int keyLength = len.getInt(0);
+                if (keyLength < 0 || pos + 16 + keyLength > size) {
+                    throw new EOFException();
+                }
+                ByteBuffer key = ByteBuffer.allocate(keyLength);
+                readFully(key, pos + 4);
+                meta.clear();
+                readFully(meta, pos + 4 + keyLength);
+                long fetchedAt = meta.getLong(0);
+                int bodyLength = meta.getInt(8);
+                long bodyOffset = pos + 16 + keyLength;
+                if (bodyLength < 0 || bodyOffset + bodyLength > size) {
+                    throw new EOFException();
+                }
+                index.put(new String(key.array(), StandardCharsets.UTF_8),
+                    new Slot(bodyOffset, bodyLength, fetchedAt));
+                pos = bodyOffset + bodyLength;
+            }
+        } catch (EOFException ex) {
+            channel.truncate(pos);
+        }
+        long live = 0;
+        for (Map.Entry<String, Slot> e : index.entrySet()) {
+            live += recordBytes(e.getKey(), e.getValue().bodyLength);
+        }
+        return live;
+    }
+
+    private static long recordBytes(String key, int bodyLength) {
+        return 16L + key.getBytes(StandardCharsets.UTF_8).length + bodyLength;
+    }
+
+    private int read(ByteBuffer buf, long position) throws IOException {
+        int total = 0;
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        int wanted = buf.remaining();
+        if (read(buf, position) < wanted) {
+            throw new EOFException();
+        }
+    }
+
+    private void reset() throws IOException {
+        index.clear();
+        liveBytes = 0;
+        deadBytes = 0;
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        channel.write(header, 0);
+    }
+
+    /**
+     * Rewrites the file with only the latest record for each key.
+     */
+    private synchronized void compact() throws IOException {
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "responses", ".tmp");
+        Map<String, Entry> live = new LinkedHashMap<>();
+        for (String key : index.keySet()) {
+            Entry e = get(key);
+            if (e != null) {
+                live.put(key, e);
+            }
+        }
+        channel.close();
+        channel = open(tmp);
+        reset();
+        for (Map.Entry<String, Entry> e : live.entrySet()) {
+            put(e.getKey(), e.getValue().getFetchedAt(), e.getValue().getBody());
+        }
+        channel.force(false);
+        channel.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        channel = open(file);
+    }
+
+    private boolean needsCompaction() {
+        return deadBytes >= COMPACT_MIN_DEAD_BYTES && deadBytes > (COMPACT_RATIO - 1) * liveBytes;
+    }
+
+    /**
+     * @param key the request path
+     * @return the latest stored response for the key, or {@code null} if none
+     * @throws IOException if the file cannot be read
+     */
+    public Entry get(String key) throws IOException {
+        Slot slot;
+        ByteBuffer body;
+        // under the lock, as compaction moves every record
+        synchronized (this) {
+            slot = index.get(key);
+            if (slot == null) {
+                return null;
+            }
+            body = ByteBuffer.allocate(slot.bodyLength);
+            readFully(body, slot.bodyOffset);
+        }
+        return new Entry(slot.fetchedAt, body.array());
+    }
+
+    /**
+     * Appends a response for the key, superseding any earlier one.
+     *
+     * @param key       the request path
+     * @param fetchedAt when the body was fetched, in epoch milliseconds
+     * @param body      the raw response body
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void put(String key, long fetchedAt, byte[] body) throws IOException {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(16 + k.length + body.length);
+        record.putInt(k.length).put(k).putLong(fetchedAt).putInt(body.length).put(body);
+        record.flip();
+        long pos = channel.size();
+        while (record.hasRemaining()) {
+            channel.write(record, pos + record.position());
+        }
+        Slot previous = index.put(key, new Slot(pos + 16 + k.length, body.length, fetchedAt));
+        long bytes = 16L + k.length + body.length;
+        liveBytes += bytes;
+        if (previous != null) {
+            long superseded = 16L + k.length + previous.bodyLength;
+            liveBytes -= superseded;
+            deadBytes += superseded;
+            if (needsCompaction()) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Queues a response to be appended on the cache's writer thread, so
+     * that the caller does not wait for the disk. Writes happen in the
+     * order they were queued.
+     *
+     * @param key       the request path
+     * @param fetchedAt when the body was fetched, in epoch milliseconds
+     * @param body      the raw response body
+     * @return a future completing once the record is written, failing with
+     *         an {@link UncheckedIOException} if it cannot be
+     * @throws java.util.concurrent.RejectedExecutionException if the cache is closed
+     */
+    public CompletableFuture<Void> putAsync(String key, long fetchedAt, byte[] body) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                put(key, fetchedAt, body);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, writer);
+    }
+
+    /**
+     * Removes every stored response.
+     *
+     * @throws IOException if the file cannot be truncated
+     */
+    public synchronized void clear() throws IOException {
+        reset();
+    }
+
+    /**
+     * Waits briefly for queued writes, then closes the file.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+// src/main/java/com/example/weather/service/ForecastCsv.java
+
+package com.example.weather.service;
+
+import com.example.weather.model.AggregateSeries;
+import com.example.weather.model.ForecastSeries;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats a forecast as CSV with a {@code datetime,temp} header and one
+ * line per data point, or an {@link AggregateSeries} with one line per
+ * window, times shown in a given zone.
+ */
+public final class ForecastCsv {
+
+    /** The header line, without the line separator. */
+    public static final String HEADER = "datetime,temp";
+
+    /** The header of aggregates, followed by one {@code pNN} column per percentile. */
+    public static final String SUMMARY_HEADER = "start,count,min,mean,max";
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private ForecastCsv() {
+    }
+
+    /**
+     * Writes the header and every data point of the series.
+     *
+     * @param series the forecast to export
+     * @param out    the destination; it is not closed
+     * @param zone   the time zone the timestamps are shown in
+     * @throws IOException if writing fails
+     */
+    public static void write(ForecastSeries series, Writer out, ZoneId zone) throws IOException {
+        String nl = System.lineSeparator();
+        DateTimeFormatter fmt = FORMAT.withZone(zone);
+        StringBuilder line = new StringBuilder(32);
+        out.write(HEADER);
+        out.write(nl);
+        for (int i = 0; i < series.size(); i++) {
+            line.setLength(0);
+            fmt.formatTo(Instant.ofEpochSecond(series.timestampAt(i)), line);
+            line.append(',').append(series.tempAt(i)).append(nl);
+            out.append(line);
+        }
+    }
+
+    /**
+     * Writes the header and every window of the aggregates, e.g.
+     * {@code start,count,min,mean,max,p90}.
+     *
+     * @param summary the aggregates to export
+     * @param out     the destination; it is not closed
+     * @param zone    the time zone the window starts are shown in
+     * @throws IOException if writing fails
+     */
+    public static void write(AggregateSeries summary, Writer out, ZoneId zone) throws IOException {
+        String nl = System.lineSeparator();
+        DateTimeFormatter fmt = FORMAT.withZone(zone);
+        double[] percentiles = summary.percentiles();
+        StringBuilder line = new StringBuilder(64).append(SUMMARY_HEADER);
+        for (double p : percentiles) {
+            line.append(",p").append(p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p));
+        }
+        out.append(line).append(nl);
+        for (int i = 0; i < summary.size(); i++) {
+            line.setLength(0);
+            fmt.formatTo(Instant.ofEpochSecond(summary.startAt(i)), line);
+            line.append(',').append(summary.countAt(i))
+                .append(',').append(summary.minAt(i))
+                .append(',').append(summary.meanAt(i))
+                .append(',').append(summary.maxAt(i));
+            for (double p : percentiles) {
+                line.append(',').append(summary.percentileAt(i, p));
+            }
+            out.append(line.append(nl));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+// src/main/java/com/example/weather/service/ForecastParser.java
+
+package com.example.weather.service;
+
+import com.example.weather.model.ForecastSeries;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Streaming parser for {@code forecast} responses.
+ *
+ * Walks the token stream once and copies only {@code list[].dt} and
+ * {@code list[].main.temp} straight into the columns of a {@link ForecastSeries},
+ * skipping everything else without building a JSON tree or per-entry objects.
+ */
+public class ForecastParser {
+
+    // the API returns at most 40 points (5 days at 3-hour steps)
+    private static final int INITIAL_CAPACITY = 40;
+
+    private final JsonFactory factory;
+
+    /**
+     * @param factory the Jackson factory used to create parsers
+     */
+    public ForecastParser(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Parses a forecast response body.
+     *
+     * @param body the response body; it is closed when parsing finishes
+     * @return the forecast points in response order (empty if there is no {@code list})
+     * @throws IOException if the body is not valid JSON
+     */
+    public ForecastSeries parse(InputStream body) throws IOException {
+        long[] timestamps = new long[INITIAL_CAPACITY];
+        double[] temps = new double[INITIAL_CAPACITY];
+        int n = 0;
+        try (JsonParser p = factory.createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return new ForecastSeries(timestamps, temps, 0);
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if (!"list".equals(field) || value != JsonToken.START_ARRAY) {
+                    p.skipChildren();
+                    continue;
+                }
+                while (p.nextToken() == JsonToken.START_OBJECT) {
+                    if (n == timestamps.length) {
+                        timestamps = Arrays.copyOf(timestamps, n * 2);
+                        temps = Arrays.copyOf(temps, n * 2);
+                    }
+                    readEntry(p, timestamps, temps, n++);
+                }
+            }
+        }
+        if (n < timestamps.length) {
+            // the series is cached, so do not keep unused capacity around
+            timestamps = Arrays.copyOf(timestamps, n);
+            temps = Arrays.copyOf(temps, n);
+        }
+        return new ForecastSeries(timestamps, temps, n);
+    }
+
+    /**
+     * Reads one element of {@code list} into slot {@code i} of the columns;
+     * the parser is positioned on its START_OBJECT.
+     */
+    private static void readEntry(JsonParser p, long[] timestamps, double[] temps, int i)
+            throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("dt".equals(field)) {
+                timestamps[i] = p.getValueAsLong();
+            } else if ("main".equals(field) && value == JsonToken.START_OBJECT) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String inner = p.currentName();
+                    p.nextToken();
+                    if ("temp".equals(inner)) {
+                        temps[i] = p.getValueAsDouble();
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+}
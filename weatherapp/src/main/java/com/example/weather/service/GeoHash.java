@@ -0,0 +1,135 @@
+// src/main/java/com/example/weather/service/GeoHash.java
+
+package com.example.weather.service;
+
+/**
+ * Geohash cells as {@code long}s: the bits of a geohash of a given number
+ * of characters (5 bits each), longitude and latitude bits interleaved with
+ * longitude first, in the low bits of the number. {@link #toString(long, int)}
+ * gives the usual base-32 form, e.g. {@code u2fkb} around Prague.
+ *
+ * A cell of 5 characters is about 4.9 x 4.9 km at the equator, one of 6
+ * about 1.2 x 0.6 km; cells narrow towards the poles.
+ */
+final class GeoHash {
+
+    /** The longest geohash that fits into a {@code long}. */
+    static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private GeoHash() {
+    }
+
+    /**
+     * @param precision the geohash length in characters
+     * @throws IllegalArgumentException if it is not from 1 to {@value #MAX_PRECISION}
+     */
+    static void checkPrecision(int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(
+                "geohash precision must be from 1 to " + MAX_PRECISION + ": " + precision);
+        }
+    }
+
+    /**
+     * @param lat       the latitude, clamped to [-90, 90]
+     * @param lon       the longitude, wrapped into [-180, 180)
+     * @param precision the geohash length in characters
+     * @return the cell containing the point
+     */
+    static long encode(double lat, double lon, int precision) {
+        int bits = precision * 5;
+        int lonBits = (bits + 1) / 2;
+        int latBits = bits / 2;
+        double wrapped = lon - 360 * Math.floor((lon + 180) / 360);
+        return interleave(index((lat + 90) / 180, latBits), index((wrapped + 180) / 360, lonBits), bits);
+    }
+
+    /**
+     * @param cell      a cell
+     * @param precision its geohash length
+     * @param dLat      cells to move north (negative: south)
+     * @param dLon      cells to move east (negative: west), wrapping around the antimeridian
+     * @return the cell moved to, or -1 past a pole
+     */
+    static long neighbour(long cell, int precision, int dLat, int dLon) {
+        int bits = precision * 5;
+        int lonBits = (bits + 1) / 2;
+        int latBits = bits / 2;
+        long lat = latIndex(cell, bits) + dLat;
+        if (lat < 0 || lat >= 1L << latBits) {
+            return -1;
+        }
+        long lon = Math.floorMod(lonIndex(cell, bits) + dLon, 1L << lonBits);
+        return interleave(lat, lon, bits);
+    }
+
+    /**
+     * @param cell      a cell
+     * @param precision its geohash length
+     * @return the latitude of the cell's centre
+     */
+    static double latitude(long cell, int precision) {
+        int bits = precision * 5;
+        return (latIndex(cell, bits) + 0.5) / (1L << (bits / 2)) * 180 - 90;
+    }
+
+    /**
+     * @param cell      a cell
+     * @param precision its geohash length
+     * @return the longitude of the cell's centre
+     */
+    static double longitude(long cell, int precision) {
+        int bits = precision * 5;
+        return (lonIndex(cell, bits) + 0.5) / (1L << ((bits + 1) / 2)) * 360 - 180;
+    }
+
+    /**
+     * @param cell      a cell
+     * @param precision its geohash length
+     * @return the base-32 geohash
+     */
+    static String toString(long cell, int precision) {
+        char[] out = new char[precision];
+        for (int i = 0; i < precision; i++) {
+            out[i] = BASE32[(int) (cell >>> (5 * (precision - 1 - i))) & 31];
+        }
+        return new String(out);
+    }
+
+    /** Maps a fraction in [0, 1] to one of {@code 2^bits} slots. */
+    private static long index(double fraction, int bits) {
+        long slots = 1L << bits;
+        long i = (long) Math.floor(fraction * slots);
+        return Math.max(0, Math.min(slots - 1, i));
+    }
+
+    /** Longitude bits take the even positions counted from the top, latitude bits the odd ones. */
+    private static long interleave(long lat, long lon, int bits) {
+        long cell = 0;
+        int lonBit = (bits + 1) / 2;
+        int latBit = bits / 2;
+        for (int i = 0; i < bits; i++) {
+            long bit = i % 2 == 0 ? lon >>> --lonBit : lat >>> --latBit;
+            cell = cell << 1 | (bit & 1);
+        }
+        return cell;
+    }
+
+    private static long lonIndex(long cell, int bits) {
+        return deinterleave(cell, bits, 0);
+    }
+
+    private static long latIndex(long cell, int bits) {
+        return deinterleave(cell, bits, 1);
+    }
+
+    private static long deinterleave(long cell, int bits, int first) {
+        long v = 0;
+        for (int i = first; i < bits; i += 2) {
+            v = v << 1 | (cell >>> (bits - 1 - i) & 1);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,129 @@
+// src/main/java/com/example/weather/service/GroupBatcher.java
+
+package com.example.weather.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects current-weather lookups by city ID for a short window and sends
+ * them as one {@code group?id=...} request of up to {@value #MAX_IDS} IDs.
+ *
+ * The first lookup of a batch starts the window; a full batch is sent at
+ * once. Each caller receives its city's element of the group response as a
+ * standalone JSON body, so it can be parsed, cached and stored like a
+ * {@code weather} response. A failed group request fails every lookup in it.
+ */
+final class GroupBatcher {
+
+    /** The most IDs the group endpoint accepts in one request. */
+    static final int MAX_IDS = 20;
+
+    private final long windowNanos;
+    private final Function<String, CompletableFuture<byte[]>> sender;
+    private final ObjectMapper mapper;
+    private final ServiceMetrics metrics;
+    private Map<Long, CompletableFuture<byte[]>> pending = new LinkedHashMap<>();
+
+    /**
+     * @param windowNanos how long to wait for more lookups after the first
+     * @param sender      sends a path and query and returns the response body
+     * @param mapper      parses and re-serializes the group response
+     * @param metrics     counts the lookups sent in groups
+     */
+    GroupBatcher(long windowNanos, Function<String, CompletableFuture<byte[]>> sender,
+                 ObjectMapper mapper, ServiceMetrics metrics) {
+        this.windowNanos = windowNanos;
+        this.sender = sender;
+        this.mapper = mapper;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Queues a lookup. Lookups of the same ID in one window share a slot.
+     *
+     * @param cityId the OpenWeather city ID
+     * @return a future of the city's {@code weather} response body
+     */
+    CompletableFuture<byte[]> submit(long cityId) {
+        CompletableFuture<byte[]> result;
+        Map<Long, CompletableFuture<byte[]>> full = null;
+        boolean first;
+        synchronized (this) {
+            result = pending.get(cityId);
+            if (result != null) {
+                return result;
+            }
+            result = new CompletableFuture<>();
+            first = pending.isEmpty();
+            pending.put(cityId, result);
+            if (pending.size() == MAX_IDS) {
+                full = take();
+            }
+        }
+        if (full != null) {
+            send(full);
+        } else if (first) {
+            CompletableFuture.delayedExecutor(windowNanos, TimeUnit.NANOSECONDS).execute(this::flush);
+        }
+        return result;
+    }
+
+    /**
+     * Sends whatever is queued; the timer of a batch sent early finds
+     * another batch or nothing.
+     */
+    private void flush() {
+        Map<Long, CompletableFuture<byte[]>> batch;
+        synchronized (this) {
+            batch = take();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private Map<Long, CompletableFuture<byte[]>> take() {
+        Map<Long, CompletableFuture<byte[]>> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void send(Map<Long, CompletableFuture<byte[]>> batch) {
+        StringBuilder path = new StringBuilder("group?id=");
+        for (long id : batch.keySet()) {
+            if (path.length() > 9) {
+                path.append(',');
+            }
+            path.append(id);
+        }
+        path.append("&units=").append(Units.METRIC);
+        metrics.grouped(batch.size());
+        sender.apply(path.toString()).whenComplete((body, err) -> {
+            if (err != null) {
+                batch.values().forEach(f -> f.completeExceptionally(err));
+                return;
+            }
+            try {
+                for (JsonNode city : mapper.readTree(body).path("list")) {
+                    CompletableFuture<byte[]> f = batch.get(city.path("id").asLong());
+                    if (f != null) {
+                        f.complete(mapper.writeValueAsBytes(city));
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                batch.values().forEach(f -> f.completeExceptionally(ex));
+                return;
+            }
+            batch.forEach((id, f) -> f.completeExceptionally(
+                new IOException("city " + id + " missing from group response")));
+        });
+    }
+}
@@ -0,0 +1,124 @@
+// src/main/java/com/example/weather/service/HedgePolicy.java
+
+package com.example.weather.service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when a slow request gets a duplicate ("hedge") and caps how many
+ * duplicates are sent.
+ *
+ * A request is hedged once it has been out longer than a percentile of the
+ * latency of the endpoint's successful first copies over the last
+ * {@value #WINDOW_INTERVALS} intervals of {@value #INTERVAL_MILLIS} ms (see
+ * {@link RecentLatency}); with the 95th percentile about one request in
+ * twenty is. Failures, timeouts and hedges are not recorded: they would pull
+ * the percentile towards the timeout or towards the hedge delay itself. The
+ * budget allows at most {@code maxExtraLoad} hedges per request sent, so a
+ * slow upstream never sees more than that much extra load. While an
+ * endpoint has fewer than {@value #MIN_SAMPLES} samples in the window
+ * nothing is hedged. The percentile is recomputed at most every
+ * {@value #REFRESH_MILLIS} ms, as reading the histograms is not free.
+ */
+final class HedgePolicy {
+
+    static final int MIN_SAMPLES = 20;
+    static final long REFRESH_MILLIS = 1_000;
+    static final long INTERVAL_MILLIS = 10_000;
+    static final int WINDOW_INTERVALS = 6;
+    private static final long MIN_DELAY_NANOS = 1_000_000;
+
+    private final double percentile;
+    private final double maxExtraLoad;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    // by endpoint; there are only a handful
+    private final ConcurrentMap<String, Latency> latencies = new ConcurrentHashMap<>();
+
+    /** The recent latency of one endpoint and the delay last derived from it. */
+    private static final class Latency {
+        final RecentLatency recent =
+            new RecentLatency(Duration.ofMillis(INTERVAL_MILLIS), WINDOW_INTERVALS);
+        volatile Delay delay;
+    }
+
+    /** A cached delay of one endpoint. */
+    private static final class Delay {
+        final long nanos;
+        final long computedAt;
+
+        Delay(long nanos, long computedAt) {
+            this.nanos = nanos;
+            this.computedAt = computedAt;
+        }
+    }
+
+    /**
+     * @param percentile   the latency percentile after which to hedge, from 0 to 100
+     * @param maxExtraLoad the most hedges per request, from 0 to 1
+     */
+    HedgePolicy(double percentile, double maxExtraLoad) {
+        if (!(percentile > 0 && percentile <= 100) || !(maxExtraLoad > 0 && maxExtraLoad <= 1)) {
+            throw new IllegalArgumentException(
+                "hedging needs a percentile in (0, 100] and extra load in (0, 1]: "
+                    + percentile + ", " + maxExtraLoad);
+        }
+        this.percentile = percentile;
+        this.maxExtraLoad = maxExtraLoad;
+    }
+
+    /**
+     * Counts a request and tells when to hedge it.
+     *
+     * @param endpoint the request's endpoint
+     * @return the delay in nanoseconds, or -1 to not hedge
+     */
+    long delayNanos(String endpoint) {
+        requests.incrementAndGet();
+        Latency latency = latency(endpoint);
+        if (latency.recent.count() < MIN_SAMPLES) {
+            return -1;
+        }
+        long now = System.currentTimeMillis();
+        Delay d = latency.delay;
+        if (d == null || now - d.computedAt >= REFRESH_MILLIS) {
+            d = new Delay(Math.max(MIN_DELAY_NANOS, latency.recent.percentile(percentile).toNanos()), now);
+            latency.delay = d;
+        }
+        return d.nanos;
+    }
+
+    /**
+     * Records how long the first copy of a request took to succeed.
+     *
+     * @param endpoint the request's endpoint
+     * @param nanos    the time from sending to the response
+     */
+    void recordPrimary(String endpoint, long nanos) {
+        latency(endpoint).recent.record(nanos);
+    }
+
+    private Latency latency(String endpoint) {
+        return latencies.computeIfAbsent(endpoint, e -> new Latency());
+    }
+
+    /**
+     * Takes a hedge from the budget.
+     *
+     * @return whether a hedge may be sent
+     */
+    boolean tryHedge() {
+        while (true) {
+            long sent = hedges.get();
+            if (sent + 1 > maxExtraLoad * requests.get()) {
+                return false;
+            }
+            if (hedges.compareAndSet(sent, sent + 1)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+// src/main/java/com/example/weather/service/HttpClientTransport.java
+
+package com.example.weather.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link Transport} backed by the JDK {@link HttpClient}.
+ */
+public class HttpClientTransport implements Transport {
+
+    private final HttpClient client;
+
+    /**
+     * Creates a transport with a default {@link HttpClient}.
+     */
+    public HttpClientTransport() {
+        this(HttpClient.newHttpClient());
+    }
+
+    /**
+     * @param client the client used to send requests
+     */
+    public HttpClientTransport(HttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public CompletableFuture<Response> get(URI uri, Duration timeout) {
+        HttpRequest req = HttpRequest.newBuilder(uri)
+            .timeout(timeout)
+            .GET()
+            .build();
+        return client.sendAsync(req, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(res -> new Response(res.statusCode(), res.body()));
+    }
+}
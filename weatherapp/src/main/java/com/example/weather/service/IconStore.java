@@ -0,0 +1,133 @@
+// src/main/java/com/example/weather/service/IconStore.java
+
+package com.example.weather.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads OpenWeatherMap weather icons as PNG bytes and keeps them in a
+ * directory, so each icon is fetched from the network at most once.
+ *
+ * Icons never change, so stored files do not expire. Concurrent requests
+ * for the same icon share one download.
+ */
+public class IconStore {
+
+    /** Where OpenWeatherMap serves its icons. */
+    public static final String ICON_BASE = "https://openweathermap.org/img/wn/";
+    /** Every icon code the API uses: nine conditions, each by day and by night. */
+    public static final List<String> ALL_CODES;
+
+    static {
+        List<String> codes = new ArrayList<>();
+        for (String condition : new String[] {"01", "02", "03", "04", "09", "10", "11", "13", "50"}) {
+            codes.add(condition + "d");
+            codes.add(condition + "n");
+        }
+        ALL_CODES = Collections.unmodifiableList(codes);
+    }
+
+    private static final Pattern CODE = Pattern.compile("\\d\\d[dn]");
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final Path dir;
+    private final String baseUrl;
+    private final Transport transport;
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param dir       directory for the downloaded icons, created on first write
+     * @param baseUrl   the icon root, ending with a slash
+     * @param transport the HTTP layer to download through
+     */
+    public IconStore(Path dir, String baseUrl, Transport transport) {
+        this.dir = dir;
+        this.baseUrl = baseUrl;
+        this.transport = transport;
+    }
+
+    /**
+     * Returns the PNG bytes of an icon, from the directory if present and
+     * from the network otherwise.
+     *
+     * @param code the icon code reported by the API, e.g. {@code 10d}
+     * @return a future of the image bytes, failing if the download fails or
+     *         with an {@link IllegalArgumentException} if the code is not
+     *         an icon code
+     */
+    public CompletableFuture<byte[]> get(String code) {
+        if (code == null || !CODE.matcher(code).matches()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("not an icon code: " + code));
+        }
+        Path file = dir.resolve(code + ".png");
+        try {
+            return CompletableFuture.completedFuture(Files.readAllBytes(file));
+        } catch (IOException ex) {
+            // not downloaded yet (or unreadable): fetch it
+        }
+        CompletableFuture<byte[]> call = new CompletableFuture<>();
+        CompletableFuture<byte[]> pending = inFlight.putIfAbsent(code, call);
+        if (pending != null) {
+            return pending.copy();
+        }
+        transport.get(URI.create(baseUrl + code + "@2x.png"), TIMEOUT)
+            .thenApply(res -> {
+                if (res.getStatusCode() != 200) {
+                    throw new RuntimeException("Icon error: " + res.getStatusCode());
+                }
+                store(file, res.getBody());
+                return res.getBody();
+            })
+            .whenComplete((body, err) -> {
+                inFlight.remove(code, call);
+                if (err == null) {
+                    call.complete(body);
+                } else {
+                    call.completeExceptionally(
+                        err instanceof CompletionException && err.getCause() != null ? err.getCause() : err);
+                }
+            });
+        return call.copy();
+    }
+
+    /**
+     * Downloads every icon that is not stored yet.
+     *
+     * @return a future that completes when all downloads have finished,
+     *         failing if any of them failed
+     */
+    public CompletableFuture<Void> preloadAll() {
+        return CompletableFuture.allOf(ALL_CODES.stream()
+            .map(this::get)
+            .toArray(CompletableFuture[]::new));
+    }
+
+    private void store(Path file, byte[] body) {
+        try {
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "icon", ".tmp");
+            Files.write(tmp, body);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ignored) {
+            // the directory is only a cache; the icon is downloaded again next time
+        }
+    }
+}
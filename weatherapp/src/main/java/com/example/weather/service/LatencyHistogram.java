@@ -0,0 +1,140 @@
+// src/main/java/com/example/weather/service/LatencyHistogram.java
+
+package com.example.weather.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of
+ * HdrHistogram.
+ *
+ * Latencies are kept in microseconds. Each power of two is split into
+ * {@code 2^SUB_BITS} equal buckets, so a reported percentile is at most
+ * 12.5% above the true value while the whole range fits in a few hundred
+ * counters. Recording is one array increment and never allocates.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // enough buckets for any non-negative long
+    static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records one observation.
+     *
+     * @param nanos the latency in nanoseconds; negative values count as zero
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(index(micros));
+        count.increment();
+        sumMicros.add(micros);
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    /**
+     * @return how many observations were recorded
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return the mean latency, or zero if nothing was recorded
+     */
+    public Duration mean() {
+        long n = count.sum();
+        return n == 0 ? Duration.ZERO : Duration.ofNanos(sumMicros.sum() * 1_000 / n);
+    }
+
+    /**
+     * @return the largest recorded latency, or zero if nothing was recorded
+     */
+    public Duration max() {
+        return Duration.ofNanos(maxMicros.get() * 1_000);
+    }
+
+    /**
+     * Returns the latency below which the given share of observations fall,
+     * rounded up to the end of its bucket.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the latency, or zero if nothing was recorded
+     */
+    public Duration percentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        addTo(snapshot);
+        return percentile(snapshot, maxMicros.get(), percentile);
+    }
+
+    /**
+     * Adds the bucket counts to {@code totals}, e.g. to merge histograms.
+     *
+     * @param totals one counter per bucket, {@link #BUCKETS} in all
+     */
+    void addTo(long[] totals) {
+        for (int i = 0; i < BUCKETS; i++) {
+            totals[i] += counts.get(i);
+        }
+    }
+
+    /**
+     * The percentile of bucket counts as filled in by {@link #addTo}.
+     *
+     * @param counts     one counter per bucket
+     * @param maxMicros  the largest latency counted, which caps the result
+     * @param percentile the percentile, from 0 to 100
+     * @return the latency, or zero if nothing was counted
+     */
+    static Duration percentile(long[] counts, long maxMicros, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile out of range: " + percentile);
+        }
+        long total = 0;
+        for (long n : counts) {
+            total += n;
+        }
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(Math.min(upperBound(i), maxMicros) * 1_000);
+            }
+        }
+        return Duration.ofNanos(maxMicros * 1_000);
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = index / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (magnitude - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,325 @@
+// src/main/java/com/example/weather/service/ObservationCodec.java
+
+package com.example.weather.service;
+
+import com.example.weather.model.ObservationSeries;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compresses blocks of observations column by column, in the style of
+ * Facebook's Gorilla time-series encoding.
+ *
+ * <ul>
+ *   <li>timestamps: the first in full, then the zigzag varint of the change
+ *       in the spacing (one byte per regularly spaced sample);</li>
+ *   <li>doubles: if every value of the column has at most two decimals, as
+ *       the API reports them, zigzag varints of the change in hundredths;
+ *       otherwise the first in full, then each value XORed with the previous
+ *       one, written as a single zero bit when unchanged and otherwise as
+ *       only its meaningful bits, reusing the previous bit window if it fits;</li>
+ *   <li>ints: zigzag varints of the change from the previous value.</li>
+ * </ul>
+ * All columns share one bit stream, padded to a whole byte at the end.
+ */
+final class ObservationCodec {
+
+    private ObservationCodec() {
+    }
+
+    /**
+     * Growable columns used to collect observations before they are encoded
+     * or handed out as an {@link ObservationSeries}.
+     */
+    static final class Columns {
+        long[] timestamps;
+        double[] temps;
+        double[] feelsLike;
+        int[] humidity;
+        int[] pressure;
+        double[] windSpeed;
+        int size;
+
+        Columns(int capacity) {
+            int n = Math.max(capacity, 8);
+            timestamps = new long[n];
+            temps = new double[n];
+            feelsLike = new double[n];
+            humidity = new int[n];
+            pressure = new int[n];
+            windSpeed = new double[n];
+        }
+
+        void add(long ts, double temp, double feels, int hum, int pres, double wind) {
+            if (size == timestamps.length) {
+                int n = size * 2;
+                timestamps = Arrays.copyOf(timestamps, n);
+                temps = Arrays.copyOf(temps, n);
+                feelsLike = Arrays.copyOf(feelsLike, n);
+                humidity = Arrays.copyOf(humidity, n);
+                pressure = Arrays.copyOf(pressure, n);
+                windSpeed = Arrays.copyOf(windSpeed, n);
+            }
+            timestamps[size] = ts;
+            temps[size] = temp;
+            feelsLike[size] = feels;
+            humidity[size] = hum;
+            pressure[size] = pres;
+            windSpeed[size] = wind;
+            size++;
+        }
+
+        /**
+         * Copies the rows with {@code from <= timestamp < to} into {@code out}.
+         */
+        void copyRange(Columns out, long from, long to) {
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] >= from && timestamps[i] < to) {
+                    out.add(timestamps[i], temps[i], feelsLike[i], humidity[i], pressure[i], windSpeed[i]);
+                }
+            }
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        ObservationSeries toSeries() {
+            return new ObservationSeries(Arrays.copyOf(timestamps, size), Arrays.copyOf(temps, size),
+                Arrays.copyOf(feelsLike, size), Arrays.copyOf(humidity, size),
+                Arrays.copyOf(pressure, size), Arrays.copyOf(windSpeed, size), size);
+        }
+    }
+
+    /**
+     * Encodes all rows of {@code c}.
+     *
+     * @return the compressed block payload
+     */
+    static byte[] encode(Columns c) {
+        BitWriter w = new BitWriter(c.size * 8 + 64);
+        long prevTs = 0;
+        long prevDelta = 0;
+        for (int i = 0; i < c.size; i++) {
+            long ts = c.timestamps[i];
+            if (i == 0) {
+                w.writeBits(ts, 64);
+            } else {
+                long delta = ts - prevTs;
+                w.writeVarLong(zigzag(delta - prevDelta));
+                prevDelta = delta;
+            }
+            prevTs = ts;
+        }
+        writeDoubles(w, c.temps, c.size);
+        writeDoubles(w, c.feelsLike, c.size);
+        writeInts(w, c.humidity, c.size);
+        writeInts(w, c.pressure, c.size);
+        writeDoubles(w, c.windSpeed, c.size);
+        return w.toByteArray();
+    }
+
+    /**
+     * Decodes a block of {@code count} rows from {@code buf} (positioned at
+     * its payload) and appends the rows with {@code from <= timestamp < to}.
+     */
+    static void decode(ByteBuffer buf, int count, Columns out, long from, long to) {
+        BitReader r = new BitReader(buf);
+        long[] ts = new long[count];
+        long prevDelta = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                ts[i] = r.readBits(64);
+            } else {
+                prevDelta += unzigzag(r.readVarLong());
+                ts[i] = ts[i - 1] + prevDelta;
+            }
+        }
+        double[] temps = readDoubles(r, count);
+        double[] feels = readDoubles(r, count);
+        int[] hum = readInts(r, count);
+        int[] pres = readInts(r, count);
+        double[] wind = readDoubles(r, count);
+        for (int i = 0; i < count; i++) {
+            if (ts[i] >= from && ts[i] < to) {
+                out.add(ts[i], temps[i], feels[i], hum[i], pres[i], wind[i]);
+            }
+        }
+    }
+
+    private static void writeDoubles(BitWriter w, double[] values, int n) {
+        boolean decimal = true;
+        for (int i = 0; i < n && decimal; i++) {
+            double v = values[i];
+            decimal = Math.abs(v) < 1e12 && Math.round(v * 100) / 100.0 == v;
+        }
+        w.writeBits(decimal ? 1 : 0, 1);
+        if (decimal) {
+            long prevCents = 0;
+            for (int i = 0; i < n; i++) {
+                long cents = Math.round(values[i] * 100);
+                w.writeVarLong(zigzag(cents - prevCents));
+                prevCents = cents;
+            }
+            return;
+        }
+        long prev = 0;
+        int prevLeading = -1;
+        int prevTrailing = 0;
+        for (int i = 0; i < n; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            if (i == 0) {
+                w.writeBits(bits, 64);
+                prev = bits;
+                continue;
+            }
+            long xor = bits ^ prev;
+            prev = bits;
+            if (xor == 0) {
+                w.writeBits(0, 1);
+                continue;
+            }
+            w.writeBits(1, 1);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                // fits the previous window
+                w.writeBits(0, 1);
+                w.writeBits(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                w.writeBits(1, 1);
+                w.writeBits(leading, 5);
+                w.writeBits(meaningful - 1, 6);
+                w.writeBits(xor >>> trailing, meaningful);
+                prevLeading = leading;
+                prevTrailing = trailing;
+            }
+        }
+    }
+
+    private static double[] readDoubles(BitReader r, int n) {
+        double[] out = new double[n];
+        if (r.readBits(1) != 0) {
+            long cents = 0;
+            for (int i = 0; i < n; i++) {
+                cents += unzigzag(r.readVarLong());
+                out[i] = cents / 100.0;
+            }
+            return out;
+        }
+        long prev = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0) {
+                prev = r.readBits(64);
+            } else if (r.readBits(1) != 0) {
+                if (r.readBits(1) != 0) {
+                    leading = (int) r.readBits(5);
+                    int meaningful = (int) r.readBits(6) + 1;
+                    trailing = 64 - leading - meaningful;
+                }
+                prev ^= r.readBits(64 - leading - trailing) << trailing;
+            }
+            out[i] = Double.longBitsToDouble(prev);
+        }
+        return out;
+    }
+
+    private static void writeInts(BitWriter w, int[] values, int n) {
+        int prev = 0;
+        for (int i = 0; i < n; i++) {
+            w.writeVarLong(zigzag((long) values[i] - prev));
+            prev = values[i];
+        }
+    }
+
+    private static int[] readInts(BitReader r, int n) {
+        int[] out = new int[n];
+        long prev = 0;
+        for (int i = 0; i < n; i++) {
+            prev += unzigzag(r.readVarLong());
+            out[i] = (int) prev;
+        }
+        return out;
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /** Appends bits, most significant first, to a growable byte array. */
+    private static final class BitWriter {
+        private byte[] bytes;
+        private long bitCount;
+
+        BitWriter(int capacity) {
+            bytes = new byte[Math.max(capacity, 16)];
+        }
+
+        void writeBits(long value, int n) {
+            for (int i = n - 1; i >= 0; i--) {
+                int byteIndex = (int) (bitCount >>> 3);
+                if (byteIndex == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                if (((value >>> i) & 1) != 0) {
+                    bytes[byteIndex] |= (byte) (0x80 >>> (bitCount & 7));
+                }
+                bitCount++;
+            }
+        }
+
+        void writeVarLong(long v) {
+            while ((v & ~0x7FL) != 0) {
+                writeBits((v & 0x7F) | 0x80, 8);
+                v >>>= 7;
+            }
+            writeBits(v, 8);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, (int) ((bitCount + 7) >>> 3));
+        }
+    }
+
+    /** Reads bits, most significant first, from a buffer starting at its position. */
+    private static final class BitReader {
+        private final ByteBuffer buf;
+        private final int start;
+        private long bitCount;
+
+        BitReader(ByteBuffer buf) {
+            this.buf = buf;
+            this.start = buf.position();
+        }
+
+        long readBits(int n) {
+            long v = 0;
+            for (int i = 0; i < n; i++) {
+                int b = buf.get(start + (int) (bitCount >>> 3));
+                v = (v << 1) | ((b >>> (7 - (bitCount & 7))) & 1);
+                bitCount++;
+            }
+            return v;
+        }
+
+        long readVarLong() {
+            long v = 0;
+            int shift = 0;
+            long b;
+            do {
+                b = readBits(8);
+                v |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return v;
+        }
+    }
+}
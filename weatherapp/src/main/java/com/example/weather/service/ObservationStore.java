@@ -0,0 +1,412 @@
+// src/main/java/com/example/weather/service/ObservationStore.java
+
+package com.example.weather.service;
+
+import com.example.weather.model.ObservationSeries;
+import com.example.weather.model.WeatherData;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only on-disk history of current-weather observations, one pair of
+ * files per city, queried by time window.
+ *
+ * Observations are collected in a small uncompressed tail file and sealed
+ * into a compressed block (see {@link ObservationCodec}) every
+ * {@value #BLOCK_SIZE} samples. The block file starts with a magic number
+ * and version, followed by blocks of the form
+ * {@code count:int minTs:long maxTs:long payloadLength:int payload}; a block
+ * of regular 15-minute samples takes a few bytes per sample. Blocks are read
+ * through a memory mapping of the file, and a query only decodes the blocks
+ * whose time range overlaps the window. {@link #scan} hands the window
+ * over one block at a time, so a whole history can be read without holding
+ * it in memory.
+ *
+ * Each city's observations are kept in time order: an observation that is
+ * not newer than the city's latest one, such as the same API measurement
+ * fetched twice, is skipped.
+ *
+ * The tail file records the size of the block file it belongs to, so a
+ * crash between sealing a block and clearing the tail loses nothing and
+ * duplicates nothing. Partially written blocks and tail records are cut off
+ * when a city is opened.
+ */
+public class ObservationStore implements Closeable {
+
+    /** Samples per compressed block. */
+    static final int BLOCK_SIZE = 256;
+
+    private static final int MAGIC = 0x5754484F; // "WTHO"
+    private static final int TAIL_MAGIC = 0x57544854; // "WTHT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int TAIL_HEADER_BYTES = 16;
+    private static final int BLOCK_HEADER_BYTES = 24;
+    // timestamp, temp, feelsLike, humidity, pressure, windSpeed
+    private static final int TAIL_RECORD_BYTES = 40;
+
+    /** Location and time range of a sealed block. */
+    private static final class Block {
+        final long offset;
+        final int count;
+        final long minTs;
+        final long maxTs;
+
+        Block(long offset, int count, long minTs, long maxTs) {
+            this.offset = offset;
+            this.count = count;
+            this.minTs = minTs;
+            this.maxTs = maxTs;
+        }
+    }
+
+    /** The files of one city. */
+    private static final class Series {
+        final FileChannel blocks;
+        final FileChannel tail;
+        final List<Block> index = new ArrayList<>();
+        final ObservationCodec.Columns open = new ObservationCodec.Columns(BLOCK_SIZE);
+        long size;
+        // the newest timestamp stored
+        long latest = Long.MIN_VALUE;
+        MappedByteBuffer mapped;
+
+        Series(FileChannel blocks, FileChannel tail) {
+            this.blocks = blocks;
+            this.tail = tail;
+        }
+    }
+
+    /**
+     * Receives the observations of a {@link #scan} one block at a time.
+     */
+    @FunctionalInterface
+    public interface BlockVisitor {
+        /**
+         * @param block the next observations in the window, in the order they
+         *              were appended; never empty
+         * @throws IOException to stop the scan, which rethrows it
+         */
+        void visit(ObservationSeries block) throws IOException;
+    }
+
+    private final Path dir;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param dir the directory holding the files, created on first append
+     */
+    public ObservationStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Records the metric fields of a current-weather response.
+     *
+     * @param city         the city, matched case-insensitively
+     * @param epochSeconds when the observation was made
+     * @param data         the observation, in metric units
+     * @return whether it was recorded; {@code false} if the city already has
+     *         an observation at or after {@code epochSeconds}
+     * @throws IOException if the files cannot be written
+     */
+    public boolean append(String city, long epochSeconds, WeatherData data) throws IOException {
+        return append(city, epochSeconds, data.getTemp(), data.getFeelsLike(), data.getHumidity(),
+            data.getPressure(), data.getWindSpeed());
+    }
+
+    /**
+     * Records one observation.
+     *
+     * @param city         the city, matched case-insensitively
+     * @param epochSeconds when the observation was made
+     * @param temp         the temperature in Celsius
+     * @param feelsLike    the perceived temperature in Celsius
+     * @param humidity     the relative humidity in percent
+     * @param pressure     the pressure in hPa
+     * @param windSpeed    the wind speed in m/s
+     * @return whether it was recorded; {@code false} if the city already has
+     *         an observation at or after {@code epochSeconds}
+     * @throws IOException if the files cannot be written
+     */
+    public boolean append(String city, long epochSeconds, double temp, double feelsLike,
+                          int humidity, int pressure, double windSpeed) throws IOException {
+        Series s = series(city, true);
+        synchronized (s) {
+            if (epochSeconds <= s.latest) {
+                return false;
+            }
+            ByteBuffer record = ByteBuffer.allocate(TAIL_RECORD_BYTES);
+            record.putLong(epochSeconds).putDouble(temp).putDouble(feelsLike)
+                .putInt(humidity).putInt(pressure).putDouble(windSpeed);
+            record.flip();
+            writeFully(s.tail, record, TAIL_HEADER_BYTES + (long) s.open.size * TAIL_RECORD_BYTES);
+            s.open.add(epochSeconds, temp, feelsLike, humidity, pressure, windSpeed);
+            s.latest = epochSeconds;
+            if (s.open.size == BLOCK_SIZE) {
+                seal(s);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the observations of a city made in {@code [from, to)}, in the
+     * order they were appended.
+     *
+     * @param city the city, matched case-insensitively
+     * @param from the start of the window in epoch seconds, inclusive
+     * @param to   the end of the window in epoch seconds, exclusive
+     * @return the matching observations, possibly none
+     * @throws IOException if the files cannot be read
+     */
+    public ObservationSeries query(String city, long from, long to) throws IOException {
+        Series s = series(city, false);
+        if (s == null) {
+            return new ObservationCodec.Columns(0).toSeries();
+        }
+        synchronized (s) {
+            ObservationCodec.Columns out = new ObservationCodec.Columns(64);
+            MappedByteBuffer mapped = mapped(s);
+            for (Block b : s.index) {
+                if (b.maxTs >= from && b.minTs < to) {
+                    ByteBuffer buf = mapped.duplicate();
+                    buf.position((int) (b.offset + BLOCK_HEADER_BYTES));
+                    ObservationCodec.decode(buf, b.count, out, from, to);
+                }
+            }
+            s.open.copyRange(out, from, to);
+            return out.toSeries();
+        }
+    }
+
+    /**
+     * Passes the observations of a city made in {@code [from, to)} to a
+     * visitor, decoding one block of at most {@value #BLOCK_SIZE} at a time.
+     * The visitor runs without the city locked, so it may take its time;
+     * observations appended during the scan may or may not be visited.
+     *
+     * @param city    the city, matched case-insensitively
+     * @param from    the start of the window in epoch seconds, inclusive
+     * @param to      the end of the window in epoch seconds, exclusive
+     * @param visitor receives the observations block by block
+     * @throws IOException if the files cannot be read or the visitor fails
+     */
+    public void scan(String city, long from, long to, BlockVisitor visitor) throws IOException {
+        Series s = series(city, false);
+        if (s == null) {
+            return;
+        }
+        ObservationCodec.Columns out = new ObservationCodec.Columns(BLOCK_SIZE);
+        boolean open = false;
+        for (int i = 0; !open; i++) {
+            out.clear();
+            synchronized (s) {
+                open = i >= s.index.size();
+                if (!open) {
+                    Block b = s.index.get(i);
+                    if (b.maxTs < from || b.minTs >= to) {
+                        continue;
+                    }
+                    ByteBuffer buf = mapped(s).duplicate();
+                    buf.position((int) (b.offset + BLOCK_HEADER_BYTES));
+                    ObservationCodec.decode(buf, b.count, out, from, to);
+                } else {
+                    // the open block, which is sealed into the index when it fills
+                    s.open.copyRange(out, from, to);
+                }
+            }
+            if (out.size > 0) {
+                visitor.visit(out.toSeries());
+            }
+        }
+    }
+
+    private static MappedByteBuffer mapped(Series s) throws IOException {
+        if (s.mapped == null || s.mapped.capacity() < s.size) {
+            s.mapped = s.blocks.map(FileChannel.MapMode.READ_ONLY, 0, s.size);
+        }
+        return s.mapped;
+    }
+
+    /**
+     * @return the open files of a city, or {@code null} if it has none and
+     *         {@code create} is false
+     */
+    private Series series(String city, boolean create) throws IOException {
+        String key = city.trim().toLowerCase(Locale.ROOT);
+        Series s = series.get(key);
+        return s != null ? s : openSeries(key, create);
+    }
+
+    private synchronized Series openSeries(String key, boolean create) throws IOException {
+        if (closed) {
+            throw new IOException("store is closed");
+        }
+        Series s = series.get(key);
+        if (s != null) {
+            return s;
+        }
+        String name = URLEncoder.encode(key, StandardCharsets.UTF_8).replace("*", "%2A");
+        Path blocks = dir.resolve(name + ".obs");
+        if (!create && !Files.exists(blocks)) {
+            return null;
+        }
+        Files.createDirectories(dir);
+        s = new Series(open(blocks), open(dir.resolve(name + ".tail")));
+        try {
+            loadBlocks(s);
+            loadTail(s);
+        } catch (IOException ex) {
+            s.blocks.close();
+            s.tail.close();
+            throw ex;
+        }
+        series.put(key, s);
+        return s;
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Indexes the block headers. Resets files with an unknown header and
+     * truncates a torn last block.
+     */
+    private static void loadBlocks(Series s) throws IOException {
+        long size = s.blocks.size();
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        if (size < HEADER_BYTES || read(s.blocks, header.limit(HEADER_BYTES), 0) < HEADER_BYTES
+                || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            s.blocks.truncate(0);
+            writeFully(s.blocks, ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip(), 0);
+            s.size = HEADER_BYTES;
+            return;
+        }
+        long pos = HEADER_BYTES;
+        try {
+            while (pos < size) {
+                header.clear();
+                if (read(s.blocks, header, pos) < BLOCK_HEADER_BYTES) {
+                    throw new EOFException();
+                }
+                int count = header.getInt(0);
+                int payloadLength = header.getInt(20);
+                if (count <= 0 || payloadLength < 0 || pos + BLOCK_HEADER_BYTES + payloadLength > size) {
+                    throw new EOFException();
+                }
+                s.index.add(new Block(pos, count, header.getLong(4), header.getLong(12)));
+                s.latest = Math.max(s.latest, header.getLong(12));
+                pos += BLOCK_HEADER_BYTES + payloadLength;
+            }
+        } catch (EOFException ex) {
+            s.blocks.truncate(pos);
+        }
+        s.size = pos;
+    }
+
+    /**
+     * Reloads the open block from the tail file, unless it was already sealed.
+     */
+    private static void loadTail(Series s) throws IOException {
+        long size = s.tail.size();
+        ByteBuffer header = ByteBuffer.allocate(TAIL_HEADER_BYTES);
+        if (size < TAIL_HEADER_BYTES || read(s.tail, header, 0) < TAIL_HEADER_BYTES
+                || header.getInt(0) != TAIL_MAGIC || header.getInt(4) != VERSION
+                || header.getLong(8) != s.size) {
+            // unknown, or sealed before the tail could be cleared
+            resetTail(s);
+            return;
+        }
+        int records = (int) Math.min((size - TAIL_HEADER_BYTES) / TAIL_RECORD_BYTES, BLOCK_SIZE);
+        ByteBuffer buf = ByteBuffer.allocate(records * TAIL_RECORD_BYTES);
+        read(s.tail, buf, TAIL_HEADER_BYTES);
+        buf.flip();
+        for (int i = 0; i < records; i++) {
+            long ts = buf.getLong();
+            s.open.add(ts, buf.getDouble(), buf.getDouble(), buf.getInt(), buf.getInt(), buf.getDouble());
+            s.latest = Math.max(s.latest, ts);
+        }
+        s.tail.truncate(TAIL_HEADER_BYTES + (long) records * TAIL_RECORD_BYTES);
+        if (records == BLOCK_SIZE) {
+            seal(s);
+        }
+    }
+
+    private static void resetTail(Series s) throws IOException {
+        s.tail.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(TAIL_HEADER_BYTES)
+            .putInt(TAIL_MAGIC).putInt(VERSION).putLong(s.size);
+        writeFully(s.tail, header.flip(), 0);
+        s.open.clear();
+    }
+
+    /**
+     * Compresses the open block onto the end of the block file and clears the tail.
+     */
+    private static void seal(Series s) throws IOException {
+        ObservationCodec.Columns c = s.open;
+        long minTs = Long.MAX_VALUE;
+        long maxTs = Long.MIN_VALUE;
+        for (int i = 0; i < c.size; i++) {
+            minTs = Math.min(minTs, c.timestamps[i]);
+            maxTs = Math.max(maxTs, c.timestamps[i]);
+        }
+        byte[] payload = ObservationCodec.encode(c);
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + payload.length);
+        block.putInt(c.size).putLong(minTs).putLong(maxTs).putInt(payload.length).put(payload);
+        writeFully(s.blocks, block.flip(), s.size);
+        s.index.add(new Block(s.size, c.size, minTs, maxTs));
+        s.size += block.capacity();
+        resetTail(s);
+    }
+
+    private static int read(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        int total = 0;
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf, position + buf.position());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        for (Series s : series.values()) {
+            synchronized (s) {
+                s.mapped = null;
+                s.blocks.close();
+                s.tail.close();
+            }
+        }
+        series.clear();
+    }
+}
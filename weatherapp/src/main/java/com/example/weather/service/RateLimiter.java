@@ -0,0 +1,64 @@
+// src/main/java/com/example/weather/service/RateLimiter.java
+
+package com.example.weather.service;
+
+/**
+ * Token bucket shared by all requests of a {@link WeatherService}.
+ *
+ * The bucket holds up to {@code burst} tokens and refills at a steady rate.
+ * A request takes one token; when none is left it takes one on credit and
+ * is told how long to wait, so waiting requests are spaced at the refill
+ * rate in arrival order.
+ */
+final class RateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param permitsPerSecond the sustained request rate
+     * @param burst            how many requests may go out at once after a quiet period
+     */
+    RateLimiter(double permitsPerSecond, int burst) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException(
+                "rate limit needs a positive rate and burst: " + permitsPerSecond + ", " + burst);
+        }
+        this.permitsPerNano = permitsPerSecond / 1e9;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token.
+     *
+     * @return how long the caller must wait before sending, in nanoseconds
+     */
+    synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+    }
+
+    /**
+     * Takes a token only if one is available now, for requests that are
+     * better skipped than delayed.
+     *
+     * @return whether a token was taken
+     */
+    synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
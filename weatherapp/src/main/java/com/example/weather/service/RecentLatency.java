@@ -0,0 +1,132 @@
+// src/main/java/com/example/weather/service/RecentLatency.java
+
+package com.example.weather.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency over the last few intervals only, for decisions that should follow
+ * the upstream as it speeds up or slows down.
+ *
+ * Observations go into a ring of {@link LatencyHistogram}s, one per
+ * interval; the slot of an interval that has passed out of the window is
+ * replaced by an empty histogram when it is next written. Counts and
+ * percentiles merge the slots of the current interval and the ones before
+ * it that are still in the window, so the window slides in steps of one
+ * interval. Recording stays one histogram increment.
+ */
+final class RecentLatency {
+
+    /** The histogram of one interval. */
+    private static final class Slot {
+        final long interval;
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        Slot(long interval) {
+            this.interval = interval;
+        }
+    }
+
+    private final long intervalNanos;
+    private final AtomicReferenceArray<Slot> slots;
+
+    /**
+     * @param interval  how long one histogram collects observations
+     * @param intervals how many intervals the window spans
+     */
+    RecentLatency(Duration interval, int intervals) {
+        if (interval.toNanos() <= 0 || intervals < 1) {
+            throw new IllegalArgumentException(
+                "need a positive interval and interval count: " + interval + ", " + intervals);
+        }
+        this.intervalNanos = interval.toNanos();
+        this.slots = new AtomicReferenceArray<>(intervals);
+    }
+
+    /**
+     * Records one observation now.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    void record(long nanos) {
+        record(nanos, System.nanoTime());
+    }
+
+    /**
+     * @param nanos the latency in nanoseconds
+     * @param now   the current {@link System#nanoTime}
+     */
+    void record(long nanos, long now) {
+        long interval = Math.floorDiv(now, intervalNanos);
+        int i = (int) Math.floorMod(interval, (long) slots.length());
+        while (true) {
+            Slot s = slots.get(i);
+            // a late writer from the previous lap still counts in the newer slot
+            if (s != null && s.interval >= interval) {
+                s.histogram.record(nanos);
+                return;
+            }
+            Slot fresh = new Slot(interval);
+            if (slots.compareAndSet(i, s, fresh)) {
+                fresh.histogram.record(nanos);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return how many observations the window holds now
+     */
+    long count() {
+        return count(System.nanoTime());
+    }
+
+    /**
+     * @param now the current {@link System#nanoTime}
+     * @return how many observations the window holds
+     */
+    long count(long now) {
+        long oldest = oldest(now);
+        long n = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            Slot s = slots.get(i);
+            if (s != null && s.interval >= oldest) {
+                n += s.histogram.count();
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @param percentile the percentile, from 0 to 100
+     * @return the latency of the window now, or zero if it is empty
+     */
+    Duration percentile(double percentile) {
+        return percentile(percentile, System.nanoTime());
+    }
+
+    /**
+     * @param percentile the percentile, from 0 to 100
+     * @param now        the current {@link System#nanoTime}
+     * @return the latency of the window, rounded up to the end of its
+     *         bucket, or zero if the window is empty
+     */
+    Duration percentile(double percentile, long now) {
+        long oldest = oldest(now);
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        long maxMicros = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            Slot s = slots.get(i);
+            if (s != null && s.interval >= oldest) {
+                s.histogram.addTo(counts);
+                maxMicros = Math.max(maxMicros, s.histogram.max().toNanos() / 1_000);
+            }
+        }
+        return LatencyHistogram.percentile(counts, maxMicros, percentile);
+    }
+
+    private long oldest(long now) {
+        return Math.floorDiv(now, intervalNanos) - slots.length() + 1;
+    }
+}
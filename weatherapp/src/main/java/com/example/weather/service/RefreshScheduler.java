@@ -0,0 +1,195 @@
+// src/main/java/com/example/weather/service/RefreshScheduler.java
+
+package com.example.weather.service;
+
+import com.example.weather.model.WeatherData;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the current weather of every watched city fresh in a
+ * {@link WeatherService}'s cache.
+ *
+ * Once per interval the scheduler walks the watched cities, starting with
+ * the visible one, and spreads their reloads evenly over the interval
+ * instead of sending them in one burst. A city whose cached data was
+ * fetched less than half an interval ago (e.g. because the user just looked
+ * it up) is skipped. Results are passed to the listeners on the thread that
+ * completed the request, never on the UI thread.
+ */
+public class RefreshScheduler implements AutoCloseable {
+
+    /**
+     * Receives the outcome of each background reload.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param city  the watched city as it was added
+         * @param data  the reloaded weather in metric units, or {@code null} on failure
+         * @param error why the reload failed, or {@code null} on success
+         */
+        void onRefresh(String city, WeatherData data, Throwable error);
+    }
+
+    private final WeatherService service;
+    private final long intervalMillis;
+    private final ScheduledExecutorService timer;
+    // in the order they were added, which is the refresh order after the visible city
+    private final CopyOnWriteArrayList<String> watched = new CopyOnWriteArrayList<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile String visible;
+    private ScheduledFuture<?> rounds;
+    private final List<ScheduledFuture<?>> pending = new ArrayList<>();
+
+    /**
+     * @param service  the service whose cache is kept fresh
+     * @param interval how often each city is reloaded
+     */
+    public RefreshScheduler(WeatherService service, Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        this.service = service;
+        this.intervalMillis = interval.toMillis();
+        ScheduledThreadPoolExecutor t = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "weather-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        t.setRemoveOnCancelPolicy(true);
+        this.timer = t;
+    }
+
+    /**
+     * @param city a city to keep fresh
+     */
+    public void watch(String city) {
+        watched.addIfAbsent(city);
+    }
+
+    /**
+     * @param city a city to stop refreshing
+     */
+    public void unwatch(String city) {
+        watched.remove(city);
+    }
+
+    /**
+     * Replaces the watched cities.
+     *
+     * @param cities the cities to keep fresh
+     */
+    public void setWatched(Collection<String> cities) {
+        watched.retainAll(cities);
+        cities.forEach(this::watch);
+    }
+
+    /**
+     * @param city the city currently on screen, refreshed first in every
+     *             round; it does not have to be watched
+     */
+    public void setVisible(String city) {
+        this.visible = city;
+    }
+
+    /**
+     * @param listener receives every reload result
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener a listener added before
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts refreshing, with the first round right away. Does nothing if
+     * already running.
+     */
+    public synchronized void start() {
+        if (rounds == null) {
+            rounds = timer.scheduleAtFixedRate(this::round, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops refreshing, dropping reloads not yet sent; {@link #start} resumes.
+     */
+    public synchronized void stop() {
+        if (rounds != null) {
+            rounds.cancel(false);
+            rounds = null;
+        }
+        pending.forEach(f -> f.cancel(false));
+        pending.clear();
+    }
+
+    /**
+     * @return whether the scheduler is running
+     */
+    public synchronized boolean isRunning() {
+        return rounds != null;
+    }
+
+    /**
+     * Schedules one reload per city, visible city first, spread over the interval.
+     */
+    private synchronized void round() {
+        pending.removeIf(ScheduledFuture::isDone);
+        List<String> cities = new ArrayList<>(watched.size() + 1);
+        String first = visible;
+        if (first != null) {
+            cities.add(first);
+        }
+        for (String city : watched) {
+            if (!city.equals(first)) {
+                cities.add(city);
+            }
+        }
+        if (cities.isEmpty()) {
+            return;
+        }
+        long slot = intervalMillis / cities.size();
+        for (int i = 0; i < cities.size(); i++) {
+            String city = cities.get(i);
+            pending.add(timer.schedule(() -> refresh(city), i * slot, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void refresh(String city) {
+        Duration age = service.currentAge(city);
+        if (age != null && age.toMillis() < intervalMillis / 2) {
+            return;
+        }
+        service.refreshCurrentAsync(city, Units.METRIC).whenComplete((data, err) -> {
+            Throwable cause = err instanceof CompletionException && err.getCause() != null
+                ? err.getCause() : err;
+            for (Listener l : listeners) {
+                l.onRefresh(city, data, cause);
+            }
+        });
+    }
+
+    /**
+     * Stops refreshing for good and releases the timer thread.
+     */
+    @Override
+    public void close() {
+        stop();
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,73 @@
+// src/main/java/com/example/weather/service/RetryPolicy.java
+
+package com.example.weather.service;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed API call is worth repeating and how long to wait
+ * before doing so.
+ *
+ * Rate limiting (429), server errors (5xx) and failures without a response
+ * (I/O errors, timeouts) are retried; other statuses such as 404 are not.
+ * Delays grow exponentially from {@code baseNanos} up to {@code maxNanos}
+ * with full jitter, so clients that failed together do not retry together.
+ */
+final class RetryPolicy {
+
+    /** A policy that never retries. */
+    static final RetryPolicy NONE = new RetryPolicy(1, 1, 1);
+
+    private final int maxAttempts;
+    private final long baseNanos;
+    private final long maxNanos;
+
+    /**
+     * @param maxAttempts how many times a call is sent at most, including the first
+     * @param baseNanos   the delay cap before the first retry
+     * @param maxNanos    the largest delay cap
+     */
+    RetryPolicy(int maxAttempts, long baseNanos, long maxNanos) {
+        if (maxAttempts < 1 || baseNanos <= 0 || maxNanos < baseNanos) {
+            throw new IllegalArgumentException("invalid retry policy: "
+                + maxAttempts + " attempts, delays " + baseNanos + ".." + maxNanos + " ns");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseNanos = baseNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @param attempt the number of the attempt that just failed, from 1
+     * @param failure why it failed
+     * @return whether to send another attempt
+     */
+    boolean shouldRetry(int attempt, Throwable failure) {
+        return attempt < maxAttempts && isRetryable(failure);
+    }
+
+    /**
+     * @param failure why a call failed
+     * @return whether the failure is likely to be temporary
+     */
+    static boolean isRetryable(Throwable failure) {
+        if (failure instanceof ApiException) {
+            int status = ((ApiException) failure).getStatusCode();
+            return status == 429 || status >= 500;
+        }
+        return failure instanceof IOException;
+    }
+
+    /**
+     * @param attempt the number of the attempt that just failed, from 1
+     * @return how long to wait before the next attempt, in nanoseconds
+     */
+    long delayNanos(int attempt) {
+        long cap = baseNanos << Math.min(attempt - 1, 30);
+        if (cap <= 0 || cap > maxNanos) {
+            cap = maxNanos;
+        }
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+}
@@ -0,0 +1,288 @@
+// src/main/java/com/example/weather/service/SeriesAggregator.java
+
+package com.example.weather.service;
+
+import com.example.weather.model.AggregateSeries;
+import com.example.weather.model.ForecastSeries;
+import com.example.weather.model.ObservationSeries;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Downsamples time series into per-hour, per-day or per-week
+ * {@link AggregateSeries} with min, max, mean and percentiles.
+ *
+ * Aggregation is a single pass over time-ordered values: calendar windows
+ * are computed in the given zone only when a value leaves the current
+ * window, and percentiles sort only the values of one window at a time.
+ * NaN values are skipped and windows without values are left out.
+ */
+public final class SeriesAggregator {
+
+    /**
+     * Calendar windows, aligned to the start of the hour, the day or the
+     * week (Monday) in the zone aggregated in.
+     */
+    public enum Window {
+        HOUR, DAY, WEEK;
+
+        ZonedDateTime start(ZonedDateTime t) {
+            switch (this) {
+                case HOUR:
+                    return t.truncatedTo(ChronoUnit.HOURS);
+                case DAY:
+                    return t.truncatedTo(ChronoUnit.DAYS);
+                default:
+                    return t.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                        .truncatedTo(ChronoUnit.DAYS);
+            }
+        }
+
+        ZonedDateTime next(ZonedDateTime start) {
+            switch (this) {
+                case HOUR:
+                    return start.plusHours(1);
+                case DAY:
+                    return start.plusDays(1);
+                default:
+                    return start.plusWeeks(1);
+            }
+        }
+    }
+
+    private SeriesAggregator() {
+    }
+
+    /**
+     * Aggregates the temperatures of a forecast.
+     *
+     * @param series      the forecast
+     * @param window      the window size
+     * @param zone        the zone whose calendar defines the windows
+     * @param percentiles the percentiles to compute, from 0 to 100
+     * @return one entry per window with at least one value
+     */
+    public static AggregateSeries aggregate(ForecastSeries series, Window window, ZoneId zone,
+                                            double... percentiles) {
+        return aggregate(series.size(), series::timestampAt, series::tempAt, window, zone, percentiles);
+    }
+
+    /**
+     * Aggregates the temperatures of a forecast over the windows it covers
+     * completely. A forecast of 3-hour points starting in the afternoon only
+     * has a few points for the first day and ends part way through its last
+     * day; those windows are left out rather than summarized from a partial
+     * day. A window counts as covered if the forecast starts less than one
+     * step after the window starts and runs to within one step of its end,
+     * the step being the smallest spacing of the forecast's points.
+     *
+     * @param series      the forecast, in time order
+     * @param window      the window size
+     * @param zone        the zone whose calendar defines the windows
+     * @param percentiles the percentiles to compute, from 0 to 100
+     * @return one entry per completely covered window; empty for fewer than two points
+     */
+    public static AggregateSeries aggregateWhole(ForecastSeries series, Window window, ZoneId zone,
+                                                 double... percentiles) {
+        int n = series.size();
+        long step = Long.MAX_VALUE;
+        for (int i = 1; i < n; i++) {
+            step = Math.min(step, series.timestampAt(i) - series.timestampAt(i - 1));
+        }
+        int from = 0;
+        int to = n;
+        if (n >= 2 && step > 0) {
+            long first = series.timestampAt(0);
+            ZonedDateTime head = window.start(Instant.ofEpochSecond(first).atZone(zone));
+            if (first - head.toEpochSecond() >= step) {
+                long next = window.next(head).toEpochSecond();
+                while (from < n && series.timestampAt(from) < next) {
+                    from++;
+                }
+            }
+            long last = series.timestampAt(n - 1);
+            ZonedDateTime tail = window.start(Instant.ofEpochSecond(last).atZone(zone));
+            if (last + step < window.next(tail).toEpochSecond()) {
+                long start = tail.toEpochSecond();
+                while (to > from && series.timestampAt(to - 1) >= start) {
+                    to--;
+                }
+            }
+        } else {
+            to = 0;
+        }
+        int offset = from;
+        return aggregate(to - from, i -> series.timestampAt(offset + i), i -> series.tempAt(offset + i),
+            window, zone, percentiles);
+    }
+
+    /**
+     * Aggregates one field of recorded observations, e.g.
+     * {@code aggregate(obs, obs::tempAt, Window.DAY, zone)}.
+     *
+     * @param series      the observations
+     * @param field       reads the aggregated field at an index of {@code series}
+     * @param window      the window size
+     * @param zone        the zone whose calendar defines the windows
+     * @param percentiles the percentiles to compute, from 0 to 100
+     * @return one entry per window with at least one value
+     */
+    public static AggregateSeries aggregate(ObservationSeries series, IntToDoubleFunction field,
+                                            Window window, ZoneId zone, double... percentiles) {
+        return aggregate(series.size(), series::timestampAt, field, window, zone, percentiles);
+    }
+
+    /**
+     * Aggregates the forecasts of many cities in parallel on the common
+     * fork-join pool.
+     *
+     * @param byCity      the forecasts by city
+     * @param window      the window size
+     * @param zone        the zone whose calendar defines the windows
+     * @param percentiles the percentiles to compute, from 0 to 100
+     * @return the aggregates by city, in the iteration order of {@code byCity}
+     */
+    public static Map<String, AggregateSeries> aggregateAll(Map<String, ForecastSeries> byCity, Window window,
+                                                            ZoneId zone, double... percentiles) {
+        List<String> cities = new ArrayList<>(byCity.keySet());
+        AggregateSeries[] results = new AggregateSeries[cities.size()];
+        IntStream.range(0, results.length).parallel().forEach(i ->
+            results[i] = aggregate(byCity.get(cities.get(i)), window, zone, percentiles));
+        Map<String, AggregateSeries> out = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            out.put(cities.get(i), results[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Aggregates {@code n} values given by index. Values are expected in
+     * time order; a value earlier than the current window starts a new one.
+     *
+     * @param n           the number of values
+     * @param timestamps  the time of each value, in seconds since the epoch
+     * @param values      the values
+     * @param window      the window size
+     * @param zone        the zone whose calendar defines the windows
+     * @param percentiles the percentiles to compute, from 0 to 100
+     * @return one entry per window with at least one value
+     */
+    public static AggregateSeries aggregate(int n, IntToLongFunction timestamps, IntToDoubleFunction values,
+                                            Window window, ZoneId zone, double... percentiles) {
+        for (double p : percentiles) {
+            if (!(p >= 0 && p <= 100)) {
+                throw new IllegalArgumentException("percentile out of range: " + p);
+            }
+        }
+        Builder b = new Builder(percentiles);
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            double v = values.applyAsDouble(i);
+            if (Double.isNaN(v)) {
+                continue;
+            }
+            long ts = timestamps.applyAsLong(i);
+            if (ts < start || ts >= end) {
+                b.flush(start);
+                ZonedDateTime s = window.start(Instant.ofEpochSecond(ts).atZone(zone));
+                start = s.toEpochSecond();
+                end = window.next(s).toEpochSecond();
+            }
+            b.add(v);
+        }
+        b.flush(start);
+        return b.build();
+    }
+
+    /** Accumulates the current window and collects finished ones. */
+    private static final class Builder {
+        private final double[] percentiles;
+        private long[] starts = new long[16];
+        private int[] counts = new int[16];
+        private double[] min = new double[16];
+        private double[] max = new double[16];
+        private double[] mean = new double[16];
+        private double[][] percentileValues;
+        private int size;
+        // the current window
+        private int count;
+        private double lo;
+        private double hi;
+        private double sum;
+        private double[] scratch;
+
+        Builder(double[] percentiles) {
+            this.percentiles = percentiles.clone();
+            this.percentileValues = new double[percentiles.length][16];
+            this.scratch = new double[percentiles.length == 0 ? 0 : 64];
+        }
+
+        void add(double v) {
+            if (count == 0 || v < lo) {
+                lo = v;
+            }
+            if (count == 0 || v > hi) {
+                hi = v;
+            }
+            sum += v;
+            if (percentiles.length > 0) {
+                if (count == scratch.length) {
+                    scratch = Arrays.copyOf(scratch, count * 2);
+                }
+                scratch[count] = v;
+            }
+            count++;
+        }
+
+        void flush(long start) {
+            if (count == 0) {
+                return;
+            }
+            if (size == starts.length) {
+                int n = size * 2;
+                starts = Arrays.copyOf(starts, n);
+                counts = Arrays.copyOf(counts, n);
+                min = Arrays.copyOf(min, n);
+                max = Arrays.copyOf(max, n);
+                mean = Arrays.copyOf(mean, n);
+                for (int k = 0; k < percentileValues.length; k++) {
+                    percentileValues[k] = Arrays.copyOf(percentileValues[k], n);
+                }
+            }
+            starts[size] = start;
+            counts[size] = count;
+            min[size] = lo;
+            max[size] = hi;
+            mean[size] = sum / count;
+            if (percentiles.length > 0) {
+                Arrays.sort(scratch, 0, count);
+                for (int k = 0; k < percentiles.length; k++) {
+                    // nearest rank
+                    int rank = (int) Math.ceil(percentiles[k] / 100 * count);
+                    percentileValues[k][size] = scratch[Math.max(rank, 1) - 1];
+                }
+            }
+            size++;
+            count = 0;
+            sum = 0;
+        }
+
+        AggregateSeries build() {
+            return new AggregateSeries(starts, counts, min, max, mean, percentiles, percentileValues, size);
+        }
+    }
+}
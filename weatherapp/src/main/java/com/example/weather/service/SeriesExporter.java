@@ -0,0 +1,359 @@
+// src/main/java/com/example/weather/service/SeriesExporter.java
+
+package com.example.weather.service;
+
+import com.example.weather.model.ForecastSeries;
+import com.example.weather.model.ObservationSeries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the series of any number of cities into one CSV or binary file.
+ *
+ * An exporter holds either forecasts ({@code city,datetime,temp}) or
+ * observations ({@code city,datetime,temp,feels_like,humidity,pressure,wind_speed});
+ * each {@code write} appends a series of one city, and a long history can
+ * be written in pieces as {@link ObservationStore#scan} decodes it, in
+ * which case one city takes several consecutive writes. Rows are encoded straight
+ * into a fixed 64 KiB buffer, so memory use does not grow with the export:
+ * the local date of a timestamp is formatted once per day (and offset
+ * change), and the city once per series. CSV times use the same
+ * {@code yyyy-MM-dd HH:mm} form as {@link ForecastCsv}.
+ *
+ * The binary format is columnar: the magic number {@code WTHX}, a version
+ * and the kind ({@code 0} forecasts, {@code 1} observations), then one
+ * chunk per write of the form {@code cityLength:int city:utf8 count:int}
+ * followed by each column in turn ({@code long} epoch seconds, then the
+ * {@code double} and {@code int} fields in CSV order), all big-endian as
+ * read by {@link java.io.DataInputStream}.
+ *
+ * Either format can be gzip-compressed. Exporters are not thread-safe.
+ */
+public final class SeriesExporter implements Closeable {
+
+    /** The output format. */
+    public enum Format { CSV, BINARY }
+
+    /** The header of forecast CSV files, without the line separator. */
+    public static final String FORECAST_HEADER = "city,datetime,temp";
+
+    /** The header of observation CSV files, without the line separator. */
+    public static final String OBSERVATION_HEADER =
+        "city,datetime,temp,feels_like,humidity,pressure,wind_speed";
+
+    static final int MAGIC = 0x57544858; // "WTHX"
+    static final int VERSION = 1;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    // the longest value the CSV encoder writes in one go
+    private static final int MAX_FIELD_BYTES = 64;
+
+    private final OutputStream out;
+    private final Format format;
+    private final boolean observations;
+    private final ZoneRules rules;
+    private final byte[] nl = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private final byte[] buf = new byte[BUFFER_BYTES];
+    private int pos;
+    private final StringBuilder number = new StringBuilder(32);
+    // "yyyy-MM-dd " of the local day valid for epoch seconds in [dayFrom, dayTo)
+    private final byte[] day = new byte[11];
+    private long dayFrom = Long.MAX_VALUE;
+    private long dayTo = Long.MIN_VALUE;
+    private int dayOffset;
+
+    private SeriesExporter(OutputStream out, Format format, boolean observations, ZoneId zone,
+                           boolean gzip) throws IOException {
+        this.out = gzip ? new GZIPOutputStream(out, BUFFER_BYTES) : out;
+        this.format = format;
+        this.observations = observations;
+        this.rules = zone.getRules();
+        if (format == Format.CSV) {
+            ascii(observations ? OBSERVATION_HEADER : FORECAST_HEADER);
+            newLine();
+        } else {
+            putInt(MAGIC);
+            putInt(VERSION);
+            ensure(1);
+            buf[pos++] = (byte) (observations ? 1 : 0);
+        }
+    }
+
+    /**
+     * Starts an export of forecasts.
+     *
+     * @param out    the destination, closed with the exporter
+     * @param format the file format
+     * @param zone   the time zone CSV times are shown in
+     * @param gzip   whether to compress the output
+     * @return the exporter
+     * @throws IOException if the header cannot be written
+     */
+    public static SeriesExporter forecasts(OutputStream out, Format format, ZoneId zone, boolean gzip)
+            throws IOException {
+        return new SeriesExporter(out, format, false, zone, gzip);
+    }
+
+    /**
+     * Starts an export of recorded observations.
+     *
+     * @param out    the destination, closed with the exporter
+     * @param format the file format
+     * @param zone   the time zone CSV times are shown in
+     * @param gzip   whether to compress the output
+     * @return the exporter
+     * @throws IOException if the header cannot be written
+     */
+    public static SeriesExporter observations(OutputStream out, Format format, ZoneId zone, boolean gzip)
+            throws IOException {
+        return new SeriesExporter(out, format, true, zone, gzip);
+    }
+
+    /**
+     * Appends the forecast of one city.
+     *
+     * @param city   the city
+     * @param series its forecast
+     * @throws IOException if writing fails
+     * @throws IllegalStateException if this exporter holds observations
+     */
+    public void write(String city, ForecastSeries series) throws IOException {
+        if (observations) {
+            throw new IllegalStateException("exporter holds observations, not forecasts");
+        }
+        int n = series.size();
+        if (format == Format.BINARY) {
+            chunkHeader(city, n);
+            for (int i = 0; i < n; i++) {
+                putLong(series.timestampAt(i));
+            }
+            for (int i = 0; i < n; i++) {
+                putLong(Double.doubleToLongBits(series.tempAt(i)));
+            }
+            return;
+        }
+        byte[] prefix = csvCity(city);
+        for (int i = 0; i < n; i++) {
+            rowStart(prefix, series.timestampAt(i));
+            comma();
+            decimal(series.tempAt(i));
+            newLine();
+        }
+    }
+
+    /**
+     * Appends the recorded observations of one city.
+     *
+     * @param city   the city
+     * @param series its observations
+     * @throws IOException if writing fails
+     * @throws IllegalStateException if this exporter holds forecasts
+     */
+    public void write(String city, ObservationSeries series) throws IOException {
+        if (!observations) {
+            throw new IllegalStateException("exporter holds forecasts, not observations");
+        }
+        int n = series.size();
+        if (format == Format.BINARY) {
+            chunkHeader(city, n);
+            for (int i = 0; i < n; i++) {
+                putLong(series.timestampAt(i));
+            }
+            for (int i = 0; i < n; i++) {
+                putLong(Double.doubleToLongBits(series.tempAt(i)));
+            }
+            for (int i = 0; i < n; i++) {
+                putLong(Double.doubleToLongBits(series.feelsLikeAt(i)));
+            }
+            for (int i = 0; i < n; i++) {
+                putInt(series.humidityAt(i));
+            }
+            for (int i = 0; i < n; i++) {
+                putInt(series.pressureAt(i));
+            }
+            for (int i = 0; i < n; i++) {
+                putLong(Double.doubleToLongBits(series.windSpeedAt(i)));
+            }
+            return;
+        }
+        byte[] prefix = csvCity(city);
+        for (int i = 0; i < n; i++) {
+            rowStart(prefix, series.timestampAt(i));
+            comma();
+            decimal(series.tempAt(i));
+            comma();
+            decimal(series.feelsLikeAt(i));
+            comma();
+            integer(series.humidityAt(i));
+            comma();
+            integer(series.pressureAt(i));
+            comma();
+            decimal(series.windSpeedAt(i));
+            newLine();
+        }
+    }
+
+    private void chunkHeader(String city, int count) throws IOException {
+        byte[] name = city.getBytes(StandardCharsets.UTF_8);
+        putInt(name.length);
+        bytes(name);
+        putInt(count);
+    }
+
+    /** The city as a CSV field followed by a comma, quoted if needed. */
+    private static byte[] csvCity(String city) {
+        String field = city;
+        if (city.indexOf(',') >= 0 || city.indexOf('"') >= 0
+                || city.indexOf('\n') >= 0 || city.indexOf('\r') >= 0) {
+            field = '"' + city.replace("\"", "\"\"") + '"';
+        }
+        return (field + ',').getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void rowStart(byte[] cityPrefix, long epochSecond) throws IOException {
+        bytes(cityPrefix);
+        if (epochSecond < dayFrom || epochSecond >= dayTo) {
+            formatDay(epochSecond);
+        }
+        ensure(MAX_FIELD_BYTES);
+        System.arraycopy(day, 0, buf, pos, day.length);
+        pos += day.length;
+        int secondOfDay = (int) Math.floorMod(epochSecond + dayOffset, 86_400L);
+        twoDigits(secondOfDay / 3600);
+        buf[pos++] = ':';
+        twoDigits(secondOfDay / 60 % 60);
+    }
+
+    /**
+     * Formats the local date of {@code epochSecond} and the range of epoch
+     * seconds that share both that date and the current zone offset.
+     */
+    private void formatDay(long epochSecond) {
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        dayOffset = rules.getOffset(instant).getTotalSeconds();
+        long localDay = Math.floorDiv(epochSecond + dayOffset, 86_400L);
+        dayFrom = localDay * 86_400L - dayOffset;
+        dayTo = dayFrom + 86_400L;
+        ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+        if (previous != null) {
+            dayFrom = Math.max(dayFrom, previous.toEpochSecond());
+        }
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        if (next != null) {
+            dayTo = Math.min(dayTo, next.toEpochSecond());
+        }
+        String date = LocalDate.ofEpochDay(localDay).toString();
+        for (int i = 0; i < 10; i++) {
+            day[i] = (byte) date.charAt(i);
+        }
+        day[10] = ' ';
+    }
+
+    private void twoDigits(int v) {
+        buf[pos++] = (byte) ('0' + v / 10);
+        buf[pos++] = (byte) ('0' + v % 10);
+    }
+
+    private void comma() throws IOException {
+        ensure(1);
+        buf[pos++] = ',';
+    }
+
+    private void newLine() throws IOException {
+        bytes(nl);
+    }
+
+    private void decimal(double v) throws IOException {
+        number.setLength(0);
+        number.append(v);
+        asciiNumber();
+    }
+
+    private void integer(int v) throws IOException {
+        number.setLength(0);
+        number.append(v);
+        asciiNumber();
+    }
+
+    private void asciiNumber() throws IOException {
+        ensure(MAX_FIELD_BYTES);
+        for (int i = 0; i < number.length(); i++) {
+            buf[pos++] = (byte) number.charAt(i);
+        }
+    }
+
+    private void ascii(String s) throws IOException {
+        bytes(s.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void bytes(byte[] b) throws IOException {
+        if (b.length > buf.length - pos) {
+            flushBuffer();
+            if (b.length > buf.length) {
+                out.write(b);
+                return;
+            }
+        }
+        System.arraycopy(b, 0, buf, pos, b.length);
+        pos += b.length;
+    }
+
+    private void putInt(int v) throws IOException {
+        ensure(4);
+        buf[pos++] = (byte) (v >>> 24);
+        buf[pos++] = (byte) (v >>> 16);
+        buf[pos++] = (byte) (v >>> 8);
+        buf[pos++] = (byte) v;
+    }
+
+    private void putLong(long v) throws IOException {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[pos++] = (byte) (v >>> shift);
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buf.length - pos < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buf, 0, pos);
+        pos = 0;
+    }
+
+    /**
+     * Writes out everything buffered so far.
+     *
+     * @throws IOException if writing fails
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Writes out everything buffered, finishes the gzip stream if any and
+     * closes the destination.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,401 @@
+// src/main/java/com/example/weather/service/ServiceMetrics.java
+
+package com.example.weather.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Counters kept by a {@link WeatherService}: memory cache statistics, stale
+ * responses served on errors, lookups sent in group requests, UV index
+ * lookups answered from the coordinate grid and, per API
+ * endpoint, memory cache hits, misses and evictions, upstream calls,
+ * retries, hedged duplicates, calls in flight, errors by HTTP status and a
+ * {@link LatencyHistogram} of round-trip times.
+ *
+ * A cache lookup adds one uncontended increment to the endpoint's counters
+ * besides Caffeine's own, which give the totals; an upstream call adds two
+ * clock reads and a few uncontended increments.
+ * Read the numbers with the getters, {@link #dump()} or over JMX after
+ * {@link #registerMBean}.
+ */
+public class ServiceMetrics implements WeatherMetricsMXBean {
+
+    /** Status recorded for a call that failed without a response (e.g. a timeout). */
+    public static final int NO_RESPONSE = 0;
+
+    /**
+     * Counters for one endpoint.
+     */
+    public static final class Endpoint {
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final LongAdder cacheEvictions = new LongAdder();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder hedges = new LongAdder();
+        private final LongAdder inFlight = new LongAdder();
+        private final ConcurrentMap<Integer, LongAdder> errors = new ConcurrentHashMap<>();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        /**
+         * Counts a memory cache lookup that found an entry, fresh or not.
+         */
+        void cacheHit() {
+            cacheHits.increment();
+        }
+
+        /**
+         * Counts a memory cache lookup that found nothing.
+         */
+        void cacheMiss() {
+            cacheMisses.increment();
+        }
+
+        /**
+         * Counts an entry evicted from the memory cache for size or age.
+         */
+        void cacheEvicted() {
+            cacheEvictions.increment();
+        }
+
+        /**
+         * Counts a call going out.
+         *
+         * @return the start time to pass to {@link #end}
+         */
+        long begin() {
+            calls.increment();
+            inFlight.increment();
+            return System.nanoTime();
+        }
+
+        /**
+         * Counts a call coming back.
+         *
+         * @param start  the value returned by {@link #begin}
+         * @param status the HTTP status, or {@link #NO_RESPONSE}
+         */
+        void end(long start, int status) {
+            latency.record(System.nanoTime() - start);
+            inFlight.decrement();
+            if (status != 200) {
+                errors.computeIfAbsent(status, s -> new LongAdder()).increment();
+            }
+        }
+
+        /**
+         * Counts a failed call that is about to be sent again.
+         */
+        void retried() {
+            retries.increment();
+        }
+
+        /**
+         * Counts a duplicate of a slow call about to be sent.
+         */
+        void hedged() {
+            hedges.increment();
+        }
+
+        /**
+         * @return how many memory cache lookups found an entry
+         */
+        public long getCacheHits() {
+            return cacheHits.sum();
+        }
+
+        /**
+         * @return how many memory cache lookups found nothing
+         */
+        public long getCacheMisses() {
+            return cacheMisses.sum();
+        }
+
+        /**
+         * @return how many memory cache entries were evicted for size or age
+         */
+        public long getCacheEvictions() {
+            return cacheEvictions.sum();
+        }
+
+        /**
+         * @return how many calls were sent, retries and hedges included
+         */
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        /**
+         * @return how many of the calls were retries of a failed call
+         */
+        public long getRetries() {
+            return retries.sum();
+        }
+
+        /**
+         * @return how many of the calls were duplicates of a slow call
+         */
+        public long getHedges() {
+            return hedges.sum();
+        }
+
+        /**
+         * @return how many calls are waiting for a response
+         */
+        public long getInFlight() {
+            return inFlight.sum();
+        }
+
+        /**
+         * @return failed calls by HTTP status ({@link #NO_RESPONSE} for no response)
+         */
+        public Map<Integer, Long> getErrors() {
+            Map<Integer, Long> copy = new TreeMap<>();
+            errors.forEach((status, n) -> copy.put(status, n.sum()));
+            return copy;
+        }
+
+        /**
+         * @return the round-trip times of all calls completed since the
+         *         service started, failed calls and hedges included
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+    }
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Supplier<CacheStats> cacheStats;
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder grouped = new LongAdder();
+    private final LongAdder gridHits = new LongAdder();
+    private final LongAdder nearestCellHits = new LongAdder();
+    private volatile ObjectName registeredAs;
+
+    /**
+     * @param cacheStats supplies a snapshot of the memory cache statistics
+     */
+    ServiceMetrics(Supplier<CacheStats> cacheStats) {
+        this.cacheStats = cacheStats;
+        for (String name : new String[] {"weather", "uvi", "forecast"}) {
+            endpoints.put(name, new Endpoint());
+        }
+    }
+
+    /**
+     * @param name the endpoint, e.g. {@code weather}
+     * @return its counters, created empty on first use
+     */
+    public Endpoint endpoint(String name) {
+        Endpoint e = endpoints.get(name);
+        return e != null ? e : endpoints.computeIfAbsent(name, n -> new Endpoint());
+    }
+
+    /**
+     * Counts a request answered with stale data because fetching failed.
+     */
+    void staleServed() {
+        staleServed.increment();
+    }
+
+    /**
+     * Counts lookups sent together in one group request.
+     *
+     * @param lookups the number of cities in the request
+     */
+    void grouped(int lookups) {
+        grouped.add(lookups);
+    }
+
+    /**
+     * Counts a UV index lookup answered from its grid cell.
+     */
+    void gridHit() {
+        gridHits.increment();
+    }
+
+    /**
+     * Counts a UV index lookup answered from a neighbouring grid cell.
+     */
+    void nearestCellHit() {
+        nearestCellHits.increment();
+    }
+
+    /**
+     * @return a snapshot of the memory cache statistics
+     */
+    public CacheStats cacheStats() {
+        return cacheStats.get();
+    }
+
+    /**
+     * Publishes these metrics on the platform MBean server.
+     *
+     * @param name the object name, e.g. {@code com.example.weather:type=WeatherService}
+     * @throws JMException if the name is invalid or already taken
+     */
+    public synchronized void registerMBean(String name) throws JMException {
+        ObjectName on = new ObjectName(name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+        registeredAs = on;
+    }
+
+    /**
+     * Removes the MBean published by {@link #registerMBean}, if any.
+     */
+    public synchronized void unregisterMBean() {
+        if (registeredAs == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(registeredAs);
+        } catch (JMException ignored) {
+            // already gone
+        }
+        registeredAs = null;
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return cacheStats().hitCount();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return cacheStats().missCount();
+    }
+
+    @Override
+    public long getCacheEvictionCount() {
+        return cacheStats().evictionCount();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        return cacheStats().hitRate();
+    }
+
+    @Override
+    public long getStaleServedCount() {
+        return staleServed.sum();
+    }
+
+    @Override
+    public long getGroupedLookupCount() {
+        return grouped.sum();
+    }
+
+    @Override
+    public long getGridHitCount() {
+        return gridHits.sum();
+    }
+
+    @Override
+    public long getNearestCellHitCount() {
+        return nearestCellHits.sum();
+    }
+
+    @Override
+    public Map<String, Long> getCacheHitCounts() {
+        return perEndpoint(Endpoint::getCacheHits);
+    }
+
+    @Override
+    public Map<String, Long> getCacheMissCounts() {
+        return perEndpoint(Endpoint::getCacheMisses);
+    }
+
+    @Override
+    public Map<String, Long> getCacheEvictionCounts() {
+        return perEndpoint(Endpoint::getCacheEvictions);
+    }
+
+    @Override
+    public Map<String, Long> getRetryCounts() {
+        return perEndpoint(Endpoint::getRetries);
+    }
+
+    @Override
+    public Map<String, Long> getHedgeCounts() {
+        return perEndpoint(Endpoint::getHedges);
+    }
+
+    @Override
+    public Map<String, Long> getCallCounts() {
+        return perEndpoint(Endpoint::getCalls);
+    }
+
+    @Override
+    public Map<String, Long> getInFlightCounts() {
+        return perEndpoint(Endpoint::getInFlight);
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> out = new TreeMap<>();
+        endpoints.forEach((name, e) ->
+            e.getErrors().forEach((status, n) -> out.put(name + ":" + status, n)));
+        return out;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP50Millis() {
+        return perEndpoint(e -> millis(e.latency.percentile(50)));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP99Millis() {
+        return perEndpoint(e -> millis(e.latency.percentile(99)));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMaxMillis() {
+        return perEndpoint(e -> millis(e.latency.max()));
+    }
+
+    @Override
+    public String dump() {
+        CacheStats stats = cacheStats();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("cache: hits=%d misses=%d evictions=%d hitRate=%.3f staleServed=%d"
+                + " groupedLookups=%d gridHits=%d nearestCellHits=%d%n",
+            stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate(),
+            staleServed.sum(), grouped.sum(), gridHits.sum(), nearestCellHits.sum()));
+        new TreeMap<>(endpoints).forEach((name, e) -> {
+            LatencyHistogram h = e.latency;
+            sb.append(String.format(
+                "%s: calls=%d retries=%d inFlight=%d errors=%s hedges=%d"
+                    + " cacheHits=%d cacheMisses=%d cacheEvictions=%d"
+                    + " latency p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                name, e.getCalls(), e.getRetries(), e.getInFlight(), e.getErrors(), e.getHedges(),
+                e.getCacheHits(), e.getCacheMisses(), e.getCacheEvictions(),
+                millis(h.percentile(50)), millis(h.percentile(90)),
+                millis(h.percentile(99)), millis(h.max())));
+        });
+        return sb.toString();
+    }
+
+    private <V> Map<String, V> perEndpoint(Function<Endpoint, V> f) {
+        Map<String, V> out = new TreeMap<>();
+        endpoints.forEach((name, e) -> out.put(name, f.apply(e)));
+        return out;
+    }
+
+    private static double millis(Duration d) {
+        return d.toNanos() / 1e6;
+    }
+}
@@ -0,0 +1,126 @@
+// src/main/java/com/example/weather/service/SpatialCache.java
+
+package com.example.weather.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Cache of values for locations, keyed by the {@link GeoHash} cell of the
+ * location rather than its exact coordinates, so that lookups of nearby
+ * places share one entry.
+ *
+ * When a cell has no usable value, {@link #nearest} answers from the
+ * closest of its eight neighbours that has one. Entries are dropped
+ * {@code ttl} after they were stored and once more than {@code maxCells}
+ * cells are held.
+ *
+ * @param <V> the cached value
+ */
+final class SpatialCache<V> {
+
+    private final int precision;
+    private final Cache<Long, V> cells;
+
+    /**
+     * @param precision the geohash length of the cells
+     * @param ttl       how long an entry is kept
+     * @param maxCells  the most cells held
+     */
+    SpatialCache(int precision, Duration ttl, long maxCells) {
+        GeoHash.checkPrecision(precision);
+        this.precision = precision;
+        this.cells = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxCells)
+            .build();
+    }
+
+    /**
+     * @param lat the latitude
+     * @param lon the longitude
+     * @return the cell containing the point
+     */
+    long cellOf(double lat, double lon) {
+        return GeoHash.encode(lat, lon, precision);
+    }
+
+    /**
+     * @param cell a cell
+     * @return the latitude of its centre
+     */
+    double latitude(long cell) {
+        return GeoHash.latitude(cell, precision);
+    }
+
+    /**
+     * @param cell a cell
+     * @return the longitude of its centre
+     */
+    double longitude(long cell) {
+        return GeoHash.longitude(cell, precision);
+    }
+
+    /**
+     * @param cell a cell
+     * @return its value, or {@code null}
+     */
+    V get(long cell) {
+        return cells.getIfPresent(cell);
+    }
+
+    /**
+     * Finds the value of the neighbouring cell whose centre is closest to
+     * a point.
+     *
+     * @param cell   the cell containing the point
+     * @param lat    the latitude of the point
+     * @param lon    the longitude of the point
+     * @param usable which values may be returned
+     * @return the value, or {@code null} if no neighbour has a usable one
+     */
+    V nearest(long cell, double lat, double lon, Predicate<V> usable) {
+        V best = null;
+        double bestDistance = Double.MAX_VALUE;
+        double cos = Math.cos(Math.toRadians(lat));
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                if (dLat == 0 && dLon == 0) {
+                    continue;
+                }
+                long n = GeoHash.neighbour(cell, precision, dLat, dLon);
+                V v = n < 0 ? null : cells.getIfPresent(n);
+                if (v == null || !usable.test(v)) {
+                    continue;
+                }
+                double y = GeoHash.latitude(n, precision) - lat;
+                // the shorter way round, across the antimeridian if need be
+                double x = Math.IEEEremainder(GeoHash.longitude(n, precision) - lon, 360) * cos;
+                double distance = x * x + y * y;
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = v;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param cell  a cell
+     * @param value its new value
+     */
+    void put(long cell, V value) {
+        cells.put(cell, value);
+    }
+
+    /**
+     * Drops every entry.
+     */
+    void clear() {
+        cells.invalidateAll();
+    }
+}
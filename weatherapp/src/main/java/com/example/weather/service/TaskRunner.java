@@ -0,0 +1,195 @@
+// src/main/java/com/example/weather/service/TaskRunner.java
+
+package com.example.weather.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs background work for UI actions on a shared, bounded set of threads.
+ *
+ * Every task belongs to a view (e.g. {@code "current"} or {@code "forecast"}).
+ * Starting a task for a view cancels the one still running for it, and only
+ * the latest task of a view ever delivers its result, so a slow, superseded
+ * request cannot overwrite a newer one. Results and errors are handed to the
+ * callback executor (the JavaFX application thread in the app).
+ *
+ * On a JDK with virtual threads each task gets its own virtual thread and a
+ * semaphore bounds how many run at once; otherwise a fixed pool of daemon
+ * platform threads does.
+ */
+public final class TaskRunner implements AutoCloseable {
+
+    /** How many tasks may run at once unless another limit is given. */
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    private final ExecutorService executor;
+    // null when the platform pool already bounds concurrency
+    private final Semaphore permits;
+    private final Executor callbacks;
+    private final ConcurrentMap<String, ViewTask<?>> current = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxConcurrency how many tasks may run at once
+     * @param callbacks      runs the success and error callbacks
+     */
+    public TaskRunner(int maxConcurrency, Executor callbacks) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive: " + maxConcurrency);
+        }
+        ExecutorService virtual = newVirtualThreadExecutor();
+        if (virtual != null) {
+            this.executor = virtual;
+            this.permits = new Semaphore(maxConcurrency);
+        } else {
+            this.executor = newPlatformPool(maxConcurrency);
+            this.permits = null;
+        }
+        this.callbacks = callbacks;
+    }
+
+    /**
+     * Uses {@code Executors.newVirtualThreadPerTaskExecutor()} when the running
+     * JDK provides it; the project is compiled for an older release.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            // not available, or still a preview feature that is not enabled
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformPool(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "weather-task-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * @return whether tasks run on virtual threads
+     */
+    public boolean usesVirtualThreads() {
+        return permits != null;
+    }
+
+    /**
+     * Starts {@code work} for a view, cancelling the view's previous task.
+     *
+     * @param view      the view the result is for
+     * @param work      the background work; it should stop when interrupted
+     * @param onSuccess receives the result, unless the task was superseded
+     * @param onError   receives the failure, unless the task was superseded
+     * @param <T>       the result type
+     * @return the task, which may be cancelled
+     */
+    public <T> Future<T> run(String view, Callable<T> work,
+                             Consumer<? super T> onSuccess, Consumer<? super Throwable> onError) {
+        ViewTask<T> task = new ViewTask<>(view, bounded(work), onSuccess, onError);
+        ViewTask<?> previous = current.put(view, task);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Cancels the running task of a view, if any; its callbacks are not run.
+     *
+     * @param view the view
+     */
+    public void cancel(String view) {
+        ViewTask<?> task = current.remove(view);
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    private <T> Callable<T> bounded(Callable<T> work) {
+        if (permits == null) {
+            return work;
+        }
+        return () -> {
+            permits.acquire();
+            try {
+                return work.call();
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * Cancels every task and stops the threads.
+     */
+    @Override
+    public void close() {
+        current.values().forEach(task -> task.cancel(true));
+        current.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * A task that reports to its callbacks only while it is still the
+     * latest one for its view.
+     */
+    private final class ViewTask<T> extends FutureTask<T> {
+        private final String view;
+        private final Consumer<? super T> onSuccess;
+        private final Consumer<? super Throwable> onError;
+
+        ViewTask(String view, Callable<T> work,
+                 Consumer<? super T> onSuccess, Consumer<? super Throwable> onError) {
+            super(work);
+            this.view = view;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+            callbacks.execute(() -> {
+                if (!current.remove(view, this)) {
+                    return;
+                }
+                T result;
+                try {
+                    result = get();
+                } catch (ExecutionException ex) {
+                    onError.accept(ex.getCause());
+                    return;
+                } catch (InterruptedException | CancellationException ex) {
+                    return;
+                }
+                onSuccess.accept(result);
+            });
+        }
+    }
+}
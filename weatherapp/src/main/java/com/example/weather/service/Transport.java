@@ -0,0 +1,58 @@
+// src/main/java/com/example/weather/service/Transport.java
+
+package com.example.weather.service;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The HTTP layer underneath {@link WeatherService}: performs one GET and
+ * hands back the status code and raw body.
+ *
+ * The default is {@link HttpClientTransport}; tests and benchmarks can plug
+ * in their own, e.g. one that answers from memory.
+ */
+@FunctionalInterface
+public interface Transport {
+
+    /**
+     * A completed HTTP exchange.
+     */
+    final class Response {
+        private final int statusCode;
+        private final byte[] body;
+
+        /**
+         * @param statusCode the HTTP status code
+         * @param body       the raw response body (may be empty)
+         */
+        public Response(int statusCode, byte[] body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        /**
+         * @return the HTTP status code
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * @return the raw response body
+         */
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    /**
+     * Sends a GET request without blocking the caller.
+     *
+     * @param uri     the full request URI, including the API key
+     * @param timeout how long to wait for the response
+     * @return a future of the response, failing on I/O errors or timeout
+     */
+    CompletableFuture<Response> get(URI uri, Duration timeout);
+}
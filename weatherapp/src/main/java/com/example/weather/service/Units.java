@@ -0,0 +1,101 @@
+// src/main/java/com/example/weather/service/Units.java
+
+package com.example.weather.service;
+
+import com.example.weather.model.ForecastSeries;
+import com.example.weather.model.WeatherData;
+
+/**
+ * Unit systems understood by {@link WeatherService} and the conversions
+ * from the canonical metric data it fetches and caches.
+ *
+ * Only temperature and wind speed differ between the systems; humidity,
+ * pressure and the UV index are unit-independent.
+ */
+public final class Units {
+
+    /** Celsius and metres/second; the form in which data is fetched and cached. */
+    public static final String METRIC = "metric";
+
+    /** Fahrenheit and miles/hour. */
+    public static final String IMPERIAL = "imperial";
+
+    /** Kelvin and metres/second, the API's default. */
+    public static final String STANDARD = "standard";
+
+    private static final double MPH_PER_MS = 3600 / 1609.344;
+
+    private Units() {
+    }
+
+    /**
+     * Converts metric current weather to the given unit system.
+     *
+     * @param metric the metric data, which is not modified
+     * @param units  the target unit system
+     * @return a copy in the target system, even for metric, as
+     *         {@code metric} is usually the cached instance shared by every
+     *         caller and {@link WeatherData} is mutable
+     * @throws IllegalArgumentException if the unit system is unknown
+     */
+    public static WeatherData convert(WeatherData metric, String units) {
+        WeatherData wd = new WeatherData(metric);
+        if (METRIC.equals(units)) {
+            return wd;
+        }
+        wd.setTemp(temperature(metric.getTemp(), units));
+        wd.setFeelsLike(temperature(metric.getFeelsLike(), units));
+        wd.setWindSpeed(speed(metric.getWindSpeed(), units));
+        return wd;
+    }
+
+    /**
+     * Converts a metric forecast to the given unit system.
+     *
+     * @param metric the metric series
+     * @param units  the target unit system
+     * @return {@code metric} itself for metric, otherwise a converted copy
+     * @throws IllegalArgumentException if the unit system is unknown
+     */
+    public static ForecastSeries convert(ForecastSeries metric, String units) {
+        if (METRIC.equals(units)) {
+            return metric;
+        }
+        check(units);
+        return metric.mapTemps(c -> temperature(c, units));
+    }
+
+    /**
+     * @param celsius a temperature in degrees Celsius
+     * @param units   the target unit system
+     * @return the temperature in the target system
+     * @throws IllegalArgumentException if the unit system is unknown
+     */
+    public static double temperature(double celsius, String units) {
+        switch (check(units)) {
+            case IMPERIAL:
+                return celsius * 9 / 5 + 32;
+            case STANDARD:
+                return celsius + 273.15;
+            default:
+                return celsius;
+        }
+    }
+
+    /**
+     * @param metresPerSecond a speed in metres/second
+     * @param units           the target unit system
+     * @return the speed in the target system
+     * @throws IllegalArgumentException if the unit system is unknown
+     */
+    public static double speed(double metresPerSecond, String units) {
+        return IMPERIAL.equals(check(units)) ? metresPerSecond * MPH_PER_MS : metresPerSecond;
+    }
+
+    private static String check(String units) {
+        if (!METRIC.equals(units) && !IMPERIAL.equals(units) && !STANDARD.equals(units)) {
+            throw new IllegalArgumentException("Unknown unit system: " + units);
+        }
+        return units;
+    }
+}
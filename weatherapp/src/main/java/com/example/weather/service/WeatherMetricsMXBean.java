@@ -0,0 +1,58 @@
+// src/main/java/com/example/weather/service/WeatherMetricsMXBean.java
+
+package com.example.weather.service;
+
+import java.util.Map;
+
+/**
+ * JMX view of a {@link WeatherService}'s {@link ServiceMetrics}.
+ *
+ * Per-endpoint maps are keyed by endpoint name ({@code weather},
+ * {@code uvi}, {@code forecast}, {@code group}); error counts are keyed by
+ * {@code endpoint:status}, where status 0 means no response was received.
+ */
+public interface WeatherMetricsMXBean {
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+
+    long getCacheEvictionCount();
+
+    double getCacheHitRate();
+
+    long getStaleServedCount();
+
+    long getGroupedLookupCount();
+
+    long getGridHitCount();
+
+    long getNearestCellHitCount();
+
+    Map<String, Long> getCacheHitCounts();
+
+    Map<String, Long> getCacheMissCounts();
+
+    Map<String, Long> getCacheEvictionCounts();
+
+    Map<String, Long> getRetryCounts();
+
+    Map<String, Long> getHedgeCounts();
+
+    Map<String, Long> getCallCounts();
+
+    Map<String, Long> getInFlightCounts();
+
+    Map<String, Long> getErrorCounts();
+
+    Map<String, Double> getLatencyP50Millis();
+
+    Map<String, Double> getLatencyP99Millis();
+
+    Map<String, Double> getLatencyMaxMillis();
+
+    /**
+     * @return a human-readable summary of every metric
+     */
+    String dump();
+}
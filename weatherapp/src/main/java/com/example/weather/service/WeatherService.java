@@ -2,67 +2,892 @@
 
 package com.example.weather.service;
 
+import com.example.weather.model.BatchResult;
+import com.example.weather.model.City;
+import com.example.weather.model.CurrentConditions;
 import com.example.weather.model.WeatherData;
 import com.example.weather.model.ForecastEntry;
+import com.example.weather.model.ForecastSeries;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 /**
  * Service for fetching weather data from the OpenWeatherMap API.
  *
  * Provides methods to retrieve current weather, UV index, and forecast entries.
+ * Every method has a non-blocking {@code ...Async} variant backed by a
+ * {@link Transport} (by default {@link HttpClient#sendAsync}); the blocking
+ * methods simply wait on it.
+ * Data is always fetched and cached in metric units and converted locally
+ * (see {@link Units}), so switching units never costs another request.
  */
-public class WeatherService {
+public class WeatherService implements AutoCloseable {
+
+    /** The OpenWeatherMap API root used unless another one is given. */
+    public static final String BASE = "https://api.openweathermap.org/data/2.5/";
+    /** Upper bound for the estimated size of all cached responses, in bytes. */
+    public static final long DEFAULT_CACHE_BYTES = 8L * 1024 * 1024;
+    /** How long a fetched response is served from the cache. */
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(10);
+    /** How many lookups of a batch may be outstanding at once. */
+    public static final int DEFAULT_BATCH_CONCURRENCY = 8;
+    /** How long a single request may take. */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    /** The most grid cells {@link Builder#uvGrid} keeps UV index values for. */
+    public static final int UV_GRID_CELLS = 4096;
+    /** Data points in a full forecast: five days in 3-hour steps. */
+    public static final int FORECAST_HORIZON = 40;
 
-    private static final String BASE = "https://api.openweathermap.org/data/2.5/";
     private final String apiKey;
-    private final HttpClient client = HttpClient.newHttpClient();
+    private final String baseUrl;
+    private final CoordinateTable coordinates;
+    // null unless city names are resolved locally
+    private final CityIndex cityIndex;
+    private final DiskResponseCache disk;
+    private final ObservationStore observations;
+    // null unless micro-batching is enabled
+    private final GroupBatcher batcher;
+    // OpenWeather city IDs by current-weather path, learned from responses when batching
+    private final ConcurrentMap<String, Long> cityIds = new ConcurrentHashMap<>();
+    // observation series names by current-weather path, for the requested cities
+    private final ConcurrentMap<String, String> observedCities = new ConcurrentHashMap<>();
+    // UV index responses by grid cell; null unless enabled
+    private final SpatialCache<CachedValue> uvGrid;
+    private final boolean uvNearestCell;
+    private final long ttlMillis;
+    // 0 disables refresh-ahead
+    private final long refreshAfterMillis;
+    private final int batchConcurrency;
+    private final Transport transport;
+    private final Duration requestTimeout;
+    // how long past the TTL a response may still be served if the upstream fails
+    private final long staleIfErrorMillis;
+    // null when unlimited / disabled
+    private final RateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryPolicy retryPolicy;
+    // null unless hedging is enabled
+    private final HedgePolicy hedgePolicy;
     private final ObjectMapper mapper = new ObjectMapper();
-    private final Cache<String, JsonNode> cache = Caffeine.newBuilder()
-        .expireAfterWrite(Duration.ofMinutes(10))
-        .build();
+    private final ForecastParser forecastParser = new ForecastParser(mapper.getFactory());
+    private final BodyParser<WeatherData> weatherParser = body -> toWeatherData(mapper.readTree(body));
+    private final BodyParser<Double> uvParser = body -> mapper.readTree(body).get("value").asDouble();
+    // Mapped responses (WeatherData, Double or ForecastSeries, depending on the endpoint)
+    private final Cache<String, CachedValue> cache;
+    // Requests currently on the wire, keyed like the cache
+    private final ConcurrentMap<String, CompletableFuture<CachedValue>> inFlight =
+        new ConcurrentHashMap<>();
+    private final ServiceMetrics metrics;
+
+    /**
+     * Turns a response body into the value that is cached for its path.
+     */
+    @FunctionalInterface
+    private interface BodyParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+
+    /**
+     * A mapped response together with the wall-clock time it was fetched,
+     * which may predate this process if it came from the disk cache.
+     */
+    private static final class CachedValue {
+        final Object value;
+        final long fetchedAt;
+        // set on an expired value handed out because reloading it failed
+        final boolean stale;
+
+        CachedValue(Object value, long fetchedAt) {
+            this(value, fetchedAt, false);
+        }
+
+        private CachedValue(Object value, long fetchedAt, boolean stale) {
+            this.value = value;
+            this.fetchedAt = fetchedAt;
+            this.stale = stale;
+        }
+
+        CachedValue asStale() {
+            return new CachedValue(value, fetchedAt, true);
+        }
+    }
+
+    /**
+     * Builder for services with non-default settings.
+     */
+    public static final class Builder {
+        private final String apiKey;
+        private String baseUrl = BASE;
+        private Transport transport;
+        private Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+        private CoordinateTable coordinates;
+        private Path diskCache;
+        private Duration cacheTtl = DEFAULT_CACHE_TTL;
+        private Duration refreshAfter;
+        private int batchConcurrency = DEFAULT_BATCH_CONCURRENCY;
+        private long maxCacheBytes = DEFAULT_CACHE_BYTES;
+        private Duration staleIfError = Duration.ZERO;
+        private RateLimiter rateLimiter;
+        private CircuitBreaker circuitBreaker;
+        private HedgePolicy hedgePolicy;
+        private CityIndex cityIndex;
+        private int uvGridPrecision;
+        private boolean uvNearestCell;
+        private RetryPolicy retryPolicy = RetryPolicy.NONE;
+        private ObservationStore observations;
+        private Duration microBatch;
+
+        private Builder(String apiKey) {
+            this.apiKey = apiKey;
+        }
+
+        /**
+         * @param baseUrl the API root, ending with a slash (e.g. a local stub server)
+         * @return this builder
+         */
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        /**
+         * @param transport the HTTP layer to send requests through
+         *                  (default: a new {@link HttpClientTransport})
+         * @return this builder
+         */
+        public Builder transport(Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * @param timeout how long a single request may take
+         * @return this builder
+         */
+        public Builder requestTimeout(Duration timeout) {
+            this.requestTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * @param coordinates the city to coordinates table used by {@link #getCurrentBundle}
+         * @return this builder
+         */
+        public Builder coordinates(CoordinateTable coordinates) {
+            this.coordinates = coordinates;
+            return this;
+        }
+
+        /**
+         * Keeps a copy of every response in the given file so that a restarted
+         * service can answer from it while the data is still fresh.
+         * If the file cannot be opened the service runs with the memory cache only.
+         *
+         * @param file the response cache file, or {@code null} for none
+         * @return this builder
+         */
+        public Builder diskCache(Path file) {
+            this.diskCache = file;
+            return this;
+        }
+
+        /**
+         * @param ttl how long a fetched response is served from the cache;
+         *            with {@link #refreshAfter} this is the hard expiry
+         * @return this builder
+         */
+        public Builder cacheTtl(Duration ttl) {
+            this.cacheTtl = ttl;
+            return this;
+        }
+
+        /**
+         * Enables refresh-ahead: a cached response older than {@code age} is
+         * still returned immediately, but triggers a background reload that
+         * replaces it. Responses older than the cache TTL are not served.
+         *
+         * @param age the age after which a hit triggers a reload, shorter than the TTL,
+         *            or {@code null} to disable
+         * @return this builder
+         */
+        public Builder refreshAfter(Duration age) {
+            this.refreshAfter = age;
+            return this;
+        }
+
+        /**
+         * @param bytes upper bound for the estimated size of the memory cache
+         * @return this builder
+         */
+        public Builder maxCacheBytes(long bytes) {
+            this.maxCacheBytes = bytes;
+            return this;
+        }
+
+        /**
+         * @param limit how many lookups of a batch may be outstanding at once
+         * @return this builder
+         */
+        public Builder batchConcurrency(int limit) {
+            if (limit < 1) {
+                throw new IllegalArgumentException("batch concurrency must be positive: " + limit);
+            }
+            this.batchConcurrency = limit;
+            return this;
+        }
+
+        /**
+         * Limits requests to the API, across all endpoints, to a sustained
+         * rate; requests over the limit are delayed, not rejected.
+         *
+         * @param requestsPerSecond the sustained request rate
+         * @param burst             how many requests may go out at once after a quiet period
+         * @return this builder
+         */
+        public Builder rateLimit(double requestsPerSecond, int burst) {
+            this.rateLimiter = new RateLimiter(requestsPerSecond, burst);
+            return this;
+        }
+
+        /**
+         * Retries requests that failed with 429, a 5xx status or no response,
+         * waiting a random time up to an exponentially growing cap in between.
+         *
+         * @param maxAttempts how many times a request is sent at most, including the first
+         * @param baseDelay   the delay cap before the first retry
+         * @param maxDelay    the largest delay cap
+         * @return this builder
+         */
+        public Builder retry(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+            this.retryPolicy = new RetryPolicy(maxAttempts, baseDelay.toNanos(), maxDelay.toNanos());
+            return this;
+        }
+
+        /**
+         * Stops calling the API for {@code openFor} once {@code failures}
+         * requests in a row have failed with a retryable error; requests in
+         * that time fail with {@link CircuitOpenException} (or are answered
+         * from stale data, see {@link #staleIfError}).
+         *
+         * @param failures how many failures in a row open the circuit
+         * @param openFor  how long to wait before trying the API again
+         * @return this builder
+         */
+        public Builder circuitBreaker(int failures, Duration openFor) {
+            this.circuitBreaker = new CircuitBreaker(failures, openFor.toNanos());
+            return this;
+        }
+
+        /**
+         * Sends a duplicate of a request still unanswered after the given
+         * percentile of the latency of its endpoint's successful responses
+         * over the last minute, and uses whichever response arrives first,
+         * cutting the tail latency caused by the odd slow upstream response.
+         * At most {@code maxExtraLoad} duplicates per request are sent, and
+         * none that the rate limit would delay; nothing is hedged while an
+         * endpoint has only a few latency samples in that minute.
+         *
+         * @param percentile   the latency percentile after which to hedge, e.g. 95
+         * @param maxExtraLoad the most duplicates per request, e.g. 0.1 for 10%
+         * @return this builder
+         */
+        public Builder hedge(double percentile, double maxExtraLoad) {
+            this.hedgePolicy = new HedgePolicy(percentile, maxExtraLoad);
+            return this;
+        }
+
+        /**
+         * Resolves city names through a local index before building a
+         * request, so that spellings of one city ("prague", "Praha ")
+         * share a request and a cache entry: a city the index knows is
+         * requested by its ID, anything else by name as before.
+         *
+         * @param index the names, aliases and IDs of known cities
+         * @return this builder
+         */
+        public Builder cityIndex(CityIndex index) {
+            this.cityIndex = index;
+            return this;
+        }
+
+        /**
+         * Caches UV index values by geohash cell instead of exact
+         * coordinates: every lookup inside a cell is answered with the
+         * value at the cell's centre, fetched once. With
+         * {@code nearestCell}, a lookup in a cell without a value is
+         * answered from the nearest neighbouring cell that has one, so
+         * closely spaced cities need even fewer requests.
+         *
+         * @param precision   the geohash length, from 1 to 12; 5 gives cells of
+         *                    about 5 x 5 km, 6 about 1.2 x 0.6 km
+         * @param nearestCell whether to fall back to a neighbouring cell
+         * @return this builder
+         */
+        public Builder uvGrid(int precision, boolean nearestCell) {
+            GeoHash.checkPrecision(precision);
+            this.uvGridPrecision = precision;
+            this.uvNearestCell = nearestCell;
+            return this;
+        }
+
+        /**
+         * Keeps responses for {@code window} past the cache TTL and serves
+         * them when fetching fresh data fails, e.g. while the circuit is open.
+         *
+         * @param window how long past the TTL a response may be served on errors
+         * @return this builder
+         */
+        public Builder staleIfError(Duration window) {
+            this.staleIfError = window;
+            return this;
+        }
+
+        /**
+         * Records every current-weather response fetched from the API, e.g.
+         * for charts of past days. The store is not closed with the service.
+         *
+         * @param store where observations are appended
+         * @return this builder
+         */
+        public Builder observationStore(ObservationStore store) {
+            this.observations = store;
+            return this;
+        }
+
+        /**
+         * Sends current-weather cache misses of cities whose ID is already
+         * known (from an earlier lookup) as multi-city {@code group}
+         * requests: lookups arriving within {@code window} of the first are
+         * sent together, up to 20 per request.
+         *
+         * @param window how long a lookup may wait for others to join it
+         * @return this builder
+         */
+        public Builder microBatch(Duration window) {
+            this.microBatch = window;
+            return this;
+        }
+
+        /**
+         * @return a new service with these settings
+         */
+        public WeatherService build() {
+            if (refreshAfter != null && refreshAfter.compareTo(cacheTtl) >= 0) {
+                throw new IllegalArgumentException(
+                    "refreshAfter " + refreshAfter + " must be shorter than the cache TTL " + cacheTtl);
+            }
+            return new WeatherService(this);
+        }
+    }
+
+    /**
+     * @param apiKey the API key appended to every request
+     * @return a builder for a service using that key
+     */
+    public static Builder builder(String apiKey) {
+        return new Builder(apiKey);
+    }
 
     public WeatherService(String apiKey) {
-        this.apiKey = apiKey;
+        this(apiKey, BASE);
     }
 
     /**
-     * Low-level fetch helper that includes a 10s timeout and in-memory caching.
+     * Creates a service that talks to the given API root instead of OpenWeatherMap,
+     * e.g. a local stub server.
      *
-     * @param pathAndQuery the path and query string (no leading slash)
-     * @return the parsed JSON tree
-     * @throws Exception if the HTTP request fails or JSON parsing fails
-     */
-    private JsonNode fetch(String pathAndQuery) throws Exception {
-        JsonNode node = cache.getIfPresent(pathAndQuery);
-        if (node != null) {
-            return node;
-        }
-        URI uri = URI.create(BASE + pathAndQuery + "&appid=" + apiKey);
-        HttpRequest req = HttpRequest.newBuilder(uri)
-            .timeout(Duration.ofSeconds(10))
-            .GET()
+     * @param apiKey  the API key appended to every request
+     * @param baseUrl the API root, ending with a slash
+     */
+    public WeatherService(String apiKey, String baseUrl) {
+        this(apiKey, baseUrl, new CoordinateTable());
+    }
+
+    /**
+     * Creates a service that remembers city coordinates in the given table,
+     * which may be persistent.
+     *
+     * @param apiKey      the API key appended to every request
+     * @param baseUrl     the API root, ending with a slash
+     * @param coordinates the city to coordinates table used by {@link #getCurrentBundle}
+     */
+    public WeatherService(String apiKey, String baseUrl, CoordinateTable coordinates) {
+        this(builder(apiKey).baseUrl(baseUrl).coordinates(coordinates));
+    }
+
+    private WeatherService(Builder b) {
+        this.apiKey = b.apiKey;
+        this.baseUrl = b.baseUrl;
+        this.transport = b.transport != null ? b.transport : new HttpClientTransport();
+        this.requestTimeout = b.requestTimeout;
+        this.coordinates = b.coordinates != null ? b.coordinates : new CoordinateTable();
+        this.cityIndex = b.cityIndex;
+        this.ttlMillis = b.cacheTtl.toMillis();
+        this.refreshAfterMillis = b.refreshAfter != null ? b.refreshAfter.toMillis() : 0;
+        this.batchConcurrency = b.batchConcurrency;
+        this.staleIfErrorMillis = b.staleIfError.toMillis();
+        this.rateLimiter = b.rateLimiter;
+        this.circuitBreaker = b.circuitBreaker;
+        this.retryPolicy = b.retryPolicy;
+        this.hedgePolicy = b.hedgePolicy;
+        this.disk = openDiskCache(b.diskCache);
+        this.observations = b.observations;
+        this.uvGrid = b.uvGridPrecision == 0 ? null
+            : new SpatialCache<>(b.uvGridPrecision, b.cacheTtl, UV_GRID_CELLS);
+        this.uvNearestCell = b.uvNearestCell;
+        this.cache = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, CachedValue>() {
+                @Override
+                public long expireAfterCreate(String key, CachedValue v, long currentTime) {
+                    return remainingNanos(v);
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, CachedValue v, long currentTime, long currentDuration) {
+                    return remainingNanos(v);
+                }
+
+                @Override
+                public long expireAfterRead(String key, CachedValue v, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .maximumWeight(b.maxCacheBytes)
+            .weigher((String key, CachedValue v) -> weigh(key, v.value))
+            .evictionListener((String key, CachedValue v, RemovalCause cause) -> evicted(key))
+            .recordStats()
             .build();
-        HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
-        if (res.statusCode() != 200) {
-            throw new RuntimeException("API error: " + res.statusCode());
+        this.metrics = new ServiceMetrics(cache::stats);
+        this.batcher = b.microBatch == null ? null
+            : new GroupBatcher(b.microBatch.toNanos(), this::send, mapper, metrics);
+    }
+
+    /** Counts an entry the memory cache dropped for size or age against its endpoint. */
+    private void evicted(String pathAndQuery) {
+        metrics.endpoint(endpointOf(pathAndQuery)).cacheEvicted();
+    }
+
+    private static DiskResponseCache openDiskCache(Path file) {
+        if (file == null) {
+            return null;
+        }
+        try {
+            return new DiskResponseCache(file);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Time left until a value fetched at {@code v.fetchedAt} may no longer be
+     * served, even as a fallback.
+     */
+    private long remainingNanos(CachedValue v) {
+        long age = System.currentTimeMillis() - v.fetchedAt;
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis + staleIfErrorMillis - age));
+    }
+
+    private boolean isFresh(long fetchedAt) {
+        return System.currentTimeMillis() - fetchedAt < ttlMillis;
+    }
+
+    private boolean isUsableOnError(long fetchedAt) {
+        return System.currentTimeMillis() - fetchedAt < ttlMillis + staleIfErrorMillis;
+    }
+
+    private boolean isFreshAndCurrent(CachedValue v) {
+        return isFresh(v.fetchedAt) && !needsRefresh(v);
+    }
+
+    private boolean needsRefresh(CachedValue v) {
+        return refreshAfterMillis > 0 && System.currentTimeMillis() - v.fetchedAt >= refreshAfterMillis;
+    }
+
+    /**
+     * Low-level fetch helper that includes a request timeout and in-memory caching,
+     * backed by the optional disk cache.
+     * Concurrent cache misses for the same path share a single upstream request.
+     * With refresh-ahead enabled, an aging hit is returned as-is while a
+     * background reload replaces it. With stale-if-error enabled, an expired
+     * response is reloaded but still returned if the reload fails.
+     *
+     * @param pathAndQuery the path and query string (no leading slash)
+     * @param parser       parses the response body; must always be the same for a given path
+     * @return a future of the parsed response, failing if the HTTP request
+     *         or parsing fails
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> fetchAsync(String pathAndQuery, BodyParser<T> parser) {
+        CachedValue cached = cache.getIfPresent(pathAndQuery);
+        ServiceMetrics.Endpoint endpoint = metrics.endpoint(endpointOf(pathAndQuery));
+        if (cached != null) {
+            endpoint.cacheHit();
+        } else {
+            endpoint.cacheMiss();
+        }
+        if (cached != null && isFresh(cached.fetchedAt)) {
+            if (needsRefresh(cached)) {
+                refreshAsync(pathAndQuery, parser, cached);
+            }
+            return CompletableFuture.completedFuture((T) cached.value);
+        }
+        CompletableFuture<CachedValue> call = new CompletableFuture<>();
+        CompletableFuture<CachedValue> pending = inFlight.putIfAbsent(pathAndQuery, call);
+        if (pending != null) {
+            return handOut(pending);
+        }
+        // another caller may have completed between the cache check and our claim;
+        // look quietly so the miss is not counted twice
+        CachedValue latest = cache.policy().getIfPresentQuietly(pathAndQuery);
+        if (latest != null) {
+            cached = latest;
+        }
+        if (cached == null || !isFresh(cached.fetchedAt)) {
+            CachedValue stored = loadFromDisk(pathAndQuery, parser);
+            if (stored != null && (cached == null || stored.fetchedAt > cached.fetchedAt)) {
+                cached = stored;
+            }
+        }
+        if (cached != null && isFresh(cached.fetchedAt)) {
+            inFlight.remove(pathAndQuery, call);
+            call.complete(cached);
+            if (needsRefresh(cached)) {
+                refreshAsync(pathAndQuery, parser, cached);
+            }
+            return handOut(call);
+        }
+        // whatever is left is stale, kept as a fallback for a failed load
+        load(pathAndQuery, parser, call, cached);
+        return handOut(call);
+    }
+
+    /**
+     * The value of a shared call as one caller receives it, counting a
+     * stale fallback as served once per caller that gets it. Each caller
+     * gets its own dependent future, so one caller cancelling does not
+     * cancel the others.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> handOut(CompletableFuture<CachedValue> call) {
+        return call.thenApply(v -> {
+            if (v.stale) {
+                metrics.staleServed();
+            }
+            return (T) v.value;
+        });
+    }
+
+    /**
+     * Starts a background reload of a cached path unless one is already running.
+     * On failure the current entry stays in place until it expires.
+     */
+    private void refreshAsync(String pathAndQuery, BodyParser<?> parser, CachedValue current) {
+        CompletableFuture<CachedValue> call = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(pathAndQuery, call) == null) {
+            load(pathAndQuery, parser, call, current);
+        }
+    }
+
+    /**
+     * Fetches a path from the network into the cache and completes {@code call},
+     * which the caller has registered in {@link #inFlight}. If the fetch fails
+     * and {@code fallback} may still be served, the call completes with it,
+     * marked stale; it is counted when {@link #handOut handed out}, so a
+     * failed background refresh nobody waits for is not counted.
+     */
+    private void load(String pathAndQuery, BodyParser<?> parser, CompletableFuture<CachedValue> call,
+                      CachedValue fallback) {
+        fetchBody(pathAndQuery).thenApply(body -> {
+            CachedValue fetched = new CachedValue(parse(parser, body), System.currentTimeMillis());
+            rememberCityId(pathAndQuery, fetched.value);
+            storeOnDisk(pathAndQuery, fetched.fetchedAt, body);
+            recordObservation(pathAndQuery, fetched);
+            return fetched;
+        }).whenComplete((result, err) -> {
+            if (err == null) {
+                cache.put(pathAndQuery, result);
+            }
+            inFlight.remove(pathAndQuery, call);
+            if (err == null) {
+                call.complete(result);
+            } else if (fallback != null && isUsableOnError(fallback.fetchedAt)) {
+                call.complete(fallback.asStale());
+            } else {
+                call.completeExceptionally(unwrap(err));
+            }
+        });
+    }
+
+    /**
+     * Reads a disk entry that may still be served, at least as a fallback.
+     * A fresh entry is promoted into the memory cache.
+     *
+     * @return the entry, or {@code null} if there is no usable one
+     */
+    private CachedValue loadFromDisk(String pathAndQuery, BodyParser<?> parser) {
+        if (disk == null) {
+            return null;
+        }
+        try {
+            DiskResponseCache.Entry entry = disk.get(pathAndQuery);
+            if (entry == null || !isUsableOnError(entry.getFetchedAt())) {
+                return null;
+            }
+            CachedValue v = new CachedValue(
+                parser.parse(new ByteArrayInputStream(entry.getBody())), entry.getFetchedAt());
+            rememberCityId(pathAndQuery, v.value);
+            if (isFresh(v.fetchedAt)) {
+                cache.put(pathAndQuery, v);
+            }
+            return v;
+        } catch (IOException ex) {
+            // unreadable or unparsable entry: fall back to the network
+            return null;
+        }
+    }
+
+    private void storeOnDisk(String pathAndQuery, long fetchedAt, byte[] body) {
+        if (disk == null) {
+            return;
+        }
+        try {
+            // written on the cache's own thread; the disk tier is best effort
+            // and the memory cache already has the value
+            disk.putAsync(pathAndQuery, fetchedAt, body);
+        } catch (RejectedExecutionException ignored) {
+            // the service is closing
+        }
+    }
+
+    /**
+     * Sends a current-weather lookup of a city with a known ID through the
+     * micro-batcher, and anything else on its own.
+     */
+    private CompletableFuture<byte[]> fetchBody(String pathAndQuery) {
+        Long id = batcher != null ? cityIds.get(pathAndQuery) : null;
+        return id != null ? batcher.submit(id) : send(pathAndQuery);
+    }
+
+    private void rememberCityId(String pathAndQuery, Object value) {
+        if (batcher != null && value instanceof WeatherData && ((WeatherData) value).getCityId() > 0) {
+            cityIds.put(pathAndQuery, ((WeatherData) value).getCityId());
+        }
+    }
+
+    /**
+     * Appends a current-weather response to the history of the city it was
+     * requested for, timestamped with when the API measured it; the store
+     * skips a measurement it already has.
+     */
+    private void recordObservation(String pathAndQuery, CachedValue fetched) {
+        String city = observedCities.get(pathAndQuery);
+        if (city == null || !(fetched.value instanceof WeatherData)) {
+            return;
+        }
+        WeatherData wd = (WeatherData) fetched.value;
+        long measuredAt = wd.getDt() > 0 ? wd.getDt() : fetched.fetchedAt / 1000;
+        try {
+            observations.append(city, measuredAt, wd);
+        } catch (IOException ignored) {
+            // history is best effort; the response is still served
+        }
+    }
+
+    /**
+     * Sends a request through the rate limiter and circuit breaker, retrying
+     * temporary failures, and returns the raw body of a 200 response.
+     */
+    private CompletableFuture<byte[]> send(String pathAndQuery) {
+        return attempt(pathAndQuery, 1);
+    }
+
+    private CompletableFuture<byte[]> attempt(String pathAndQuery, int attempt) {
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            return CompletableFuture.failedFuture(new CircuitOpenException());
+        }
+        long wait = rateLimiter != null ? rateLimiter.reserve() : 0;
+        CompletableFuture<byte[]> sent = wait > 0
+            ? after(wait).thenCompose(ignored -> sendHedged(pathAndQuery))
+            : sendHedged(pathAndQuery);
+        return sent.handle((body, err) -> {
+            if (err == null) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.onSuccess();
+                }
+                return CompletableFuture.completedFuture(body);
+            }
+            Throwable cause = unwrap(err);
+            boolean retryable = RetryPolicy.isRetryable(cause);
+            if (circuitBreaker != null) {
+                // a 404 still shows the API is up
+                if (retryable) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+            }
+            if (retryPolicy.shouldRetry(attempt, cause)) {
+                metrics.endpoint(endpointOf(pathAndQuery)).retried();
+                return after(retryPolicy.delayNanos(attempt))
+                    .thenCompose(ignored -> attempt(pathAndQuery, attempt + 1));
+            }
+            return CompletableFuture.<byte[]>failedFuture(cause);
+        }).thenCompose(f -> f);
+    }
+
+    private static CompletableFuture<Void> after(long nanos) {
+        return CompletableFuture.runAsync(() -> { },
+            CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Sends a request and, with hedging enabled, a duplicate if it is slow.
+     * The first successful response wins; the result fails only once every
+     * copy has failed, with the last failure. The losing copy is not
+     * cancelled, as the transport cannot abort a request already sent.
+     * Only the first copy's successful round trips feed the hedge delay.
+     */
+    private CompletableFuture<byte[]> sendHedged(String pathAndQuery) {
+        if (hedgePolicy == null) {
+            return sendOnce(pathAndQuery);
+        }
+        String name = endpointOf(pathAndQuery);
+        ServiceMetrics.Endpoint endpoint = metrics.endpoint(name);
+        long delay = hedgePolicy.delayNanos(name);
+        long start = System.nanoTime();
+        CompletableFuture<byte[]> first = sendOnce(pathAndQuery);
+        first.thenRun(() -> hedgePolicy.recordPrimary(name, System.nanoTime() - start));
+        if (delay < 0) {
+            return first;
+        }
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        // copies sent whose outcome is not known yet
+        AtomicInteger pending = new AtomicInteger(1);
+        BiConsumer<byte[], Throwable> settle = (body, err) -> {
+            if (err == null) {
+                result.complete(body);
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(unwrap(err));
+            }
+        };
+        first.whenComplete(settle);
+        after(delay).thenRun(() -> {
+            if (result.isDone() || !hedgePolicy.tryHedge()
+                    || (rateLimiter != null && !rateLimiter.tryAcquire())) {
+                return;
+            }
+            // the first copy may have failed in the meantime
+            if (pending.getAndUpdate(n -> n > 0 ? n + 1 : n) == 0) {
+                return;
+            }
+            endpoint.hedged();
+            sendOnce(pathAndQuery).whenComplete(settle);
+        });
+        return result;
+    }
+
+    /**
+     * Performs one HTTP round trip and returns the raw body of a 200 response.
+     */
+    private CompletableFuture<byte[]> sendOnce(String pathAndQuery) {
+        URI uri = URI.create(baseUrl + pathAndQuery + "&appid=" + apiKey);
+        ServiceMetrics.Endpoint endpoint = metrics.endpoint(endpointOf(pathAndQuery));
+        long start = endpoint.begin();
+        return transport.get(uri, requestTimeout)
+            .whenComplete((res, err) ->
+                endpoint.end(start, res != null ? res.getStatusCode() : ServiceMetrics.NO_RESPONSE))
+            .thenApply(res -> {
+                if (res.getStatusCode() != 200) {
+                    throw new ApiException(res.getStatusCode());
+                }
+                return res.getBody();
+            });
+    }
+
+    private static String endpointOf(String pathAndQuery) {
+        int q = pathAndQuery.indexOf('?');
+        return q < 0 ? pathAndQuery : pathAndQuery.substring(0, q);
+    }
+
+    private static <T> T parse(BodyParser<T> parser, byte[] body) {
+        try {
+            return parser.parse(new ByteArrayInputStream(body));
+        } catch (IOException ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    /**
+     * Rough retained size of a cache entry in bytes, used as its eviction weight.
+     */
+    private static int weigh(String key, Object value) {
+        int bytes = 64 + 2 * key.length();
+        if (value instanceof ForecastSeries) {
+            // one long and one double per point, plus the two array headers
+            bytes += 48 + 16 * ((ForecastSeries) value).size();
+        } else if (value instanceof WeatherData) {
+            WeatherData wd = (WeatherData) value;
+            bytes += 120 + 48 * 4 + 2 * (length(wd.getMain()) + length(wd.getDescription())
+                + length(wd.getIconCode()) + length(wd.getCity()));
+        } else {
+            bytes += 16;
+        }
+        return bytes;
+    }
+
+    private static int length(String s) {
+        return s == null ? 0 : s.length();
+    }
+
+    /**
+     * Strips the {@link CompletionException} wrapper added by the async pipeline.
+     */
+    private static Throwable unwrap(Throwable err) {
+        if (err instanceof CompletionException && err.getCause() != null) {
+            return err.getCause();
+        }
+        return err;
+    }
+
+    /**
+     * Blocks on a future from the async pipeline and rethrows its failure as-is.
+     */
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = unwrap(ex.getCause());
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw ex;
         }
-        node = mapper.readTree(res.body());
-        cache.put(pathAndQuery, node);
-        return node;
     }
 
     /**
@@ -70,13 +895,122 @@ public class WeatherService {
      *
      * @param city  the name of the city (e.g. "Prague")
      * @param units the unit system ("metric" or "imperial")
-     * @return a {@link WeatherData} object populated from the API response
+     * @return a {@link WeatherData} object populated from the API response;
+     *         the caller's own copy, which it may change freely
      * @throws Exception if the fetch or parsing fails
      */
     public WeatherData getCurrent(String city, String units) throws Exception {
-        String q = "weather?q=" + URLEncoder.encode(city, StandardCharsets.UTF_8)
-                 + "&units=" + units;
-        JsonNode root = fetch(q);
+        return await(getCurrentAsync(city, units));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getCurrent(String, String)}.
+     *
+     * @param city  the name of the city (e.g. "Prague")
+     * @param units the unit system ("metric" or "imperial")
+     * @return a future of the {@link WeatherData}, failing if the fetch or parsing fails
+     */
+    public CompletableFuture<WeatherData> getCurrentAsync(String city, String units) {
+        return fetchAsync(observedPath(city), weatherParser).thenApply(wd -> {
+            coordinates.remember(city, wd.getLat(), wd.getLon());
+            return Units.convert(wd, units);
+        });
+    }
+
+    /**
+     * Fetches the current weather for a city from the API even if the cache
+     * holds a fresh copy, and replaces the cached copy with it. Joins a
+     * request for the city that is already in flight.
+     *
+     * @param city  the name of the city (e.g. "Prague")
+     * @param units the unit system ("metric" or "imperial")
+     * @return a future of the reloaded {@link WeatherData}
+     */
+    public CompletableFuture<WeatherData> refreshCurrentAsync(String city, String units) {
+        String path = observedPath(city);
+        CompletableFuture<CachedValue> call = new CompletableFuture<>();
+        CompletableFuture<CachedValue> pending = inFlight.putIfAbsent(path, call);
+        if (pending == null) {
+            load(path, weatherParser, call, cache.policy().getIfPresentQuietly(path));
+        }
+        return this.<WeatherData>handOut(pending != null ? pending : call).thenApply(wd -> {
+            coordinates.remember(city, wd.getLat(), wd.getLon());
+            return Units.convert(wd, units);
+        });
+    }
+
+    /**
+     * @param city the name of the city (e.g. "Prague")
+     * @return how long ago the cached current weather for the city was
+     *         fetched, or {@code null} if none is cached
+     */
+    public Duration currentAge(String city) {
+        CachedValue v = cache.policy().getIfPresentQuietly(currentPath(city));
+        return v == null ? null : Duration.ofMillis(System.currentTimeMillis() - v.fetchedAt);
+    }
+
+    private String currentPath(String city) {
+        return cityQuery("weather", city) + "&units=" + Units.METRIC;
+    }
+
+    /**
+     * The current-weather path of a city, remembering which observation
+     * series responses to it are recorded under: the city's canonical name
+     * if the index knows it, otherwise the name as given.
+     */
+    private String observedPath(String city) {
+        String path = currentPath(city);
+        if (observations != null && !observedCities.containsKey(path)) {
+            City known = cityIndex != null ? cityIndex.resolve(city) : null;
+            observedCities.putIfAbsent(path, known != null ? known.getName() : city.trim());
+        }
+        return path;
+    }
+
+    /**
+     * The endpoint with the city's ID if the index knows the city, or its
+     * name otherwise.
+     */
+    private String cityQuery(String endpoint, String city) {
+        City known = cityIndex != null ? cityIndex.resolve(city) : null;
+        return known != null
+            ? endpoint + "?id=" + known.getId()
+            : endpoint + "?q=" + URLEncoder.encode(city, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retrieves the current weather for several cities, running up to the
+     * configured batch concurrency of lookups at once. Lookups share the
+     * cache and in-flight requests with every other call.
+     *
+     * @param cities the city names; duplicates are looked up once
+     * @param units  the unit system ("metric" or "imperial")
+     * @return the per-city results and errors with the batch's duration
+     * @throws Exception if waiting for the batch is interrupted
+     */
+    public BatchResult<WeatherData> getCurrentBatch(Collection<String> cities, String units) throws Exception {
+        return await(getCurrentBatchAsync(cities, units, batchConcurrency));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getCurrentBatch(Collection, String)}
+     * with an explicit concurrency limit.
+     *
+     * @param cities         the city names; duplicates are looked up once
+     * @param units          the unit system ("metric" or "imperial")
+     * @param maxConcurrency how many lookups may be outstanding at once
+     * @return a future of the per-city results and errors; failures of single
+     *         cities are reported in the result, not by the future
+     */
+    public CompletableFuture<BatchResult<WeatherData>> getCurrentBatchAsync(
+            Collection<String> cities, String units, int maxConcurrency) {
+        return BoundedBatch.run(cities, city -> getCurrentAsync(city, units), maxConcurrency);
+    }
+
+    /**
+     * Maps a {@code weather} response onto a {@link WeatherData}.
+     */
+    private WeatherData toWeatherData(JsonNode root) throws JsonProcessingException {
         JsonNode main = root.get("main");
         JsonNode sys = root.get("sys");
         JsonNode coord = root.get("coord");
@@ -93,6 +1027,8 @@ public class WeatherService {
         wd.setLat(coord.get("lat").asDouble());
         wd.setLon(coord.get("lon").asDouble());
         wd.setCity(root.get("name").asText());
+        wd.setCityId(root.path("id").asLong());
+        wd.setDt(root.path("dt").asLong());
         return wd;
     }
 
@@ -105,13 +1041,96 @@ public class WeatherService {
      * @throws Exception if the fetch or parsing fails
      */
     public double fetchUVIndex(double lat, double lon) throws Exception {
-        String path = String.format("uvi?lat=%.6f&lon=%.6f", lat, lon);
-        JsonNode j = fetch(path);
-        return j.get("value").asDouble();
+        return await(fetchUVIndexAsync(lat, lon));
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetchUVIndex(double, double)}.
+     *
+     * @param lat the latitude
+     * @param lon the longitude
+     * @return a future of the UV index value
+     */
+    public CompletableFuture<Double> fetchUVIndexAsync(double lat, double lon) {
+        if (uvGrid != null) {
+            return fetchUVIndexOnGridAsync(lat, lon);
+        }
+        return fetchAsync(uvPath(lat, lon), uvParser);
+    }
+
+    /**
+     * Answers from the grid cell of the point, or a neighbour's, without
+     * building a request path; otherwise fetches the value at the cell's
+     * centre through the regular cache, which also takes care of refreshing
+     * and stale fallbacks, and copies it into the grid.
+     */
+    private CompletableFuture<Double> fetchUVIndexOnGridAsync(double lat, double lon) {
+        long cell = uvGrid.cellOf(lat, lon);
+        CachedValue hit = uvGrid.get(cell);
+        if (hit != null && isFreshAndCurrent(hit)) {
+            metrics.gridHit();
+            return CompletableFuture.completedFuture((Double) hit.value);
+        }
+        if (hit == null && uvNearestCell) {
+            CachedValue near = uvGrid.nearest(cell, lat, lon, this::isFreshAndCurrent);
+            if (near != null) {
+                metrics.nearestCellHit();
+                return CompletableFuture.completedFuture((Double) near.value);
+            }
+        }
+        String path = uvPath(uvGrid.latitude(cell), uvGrid.longitude(cell));
+        return fetchAsync(path, uvParser).thenApply(uvi -> {
+            CachedValue stored = cache.policy().getIfPresentQuietly(path);
+            if (stored != null) {
+                uvGrid.put(cell, stored);
+            }
+            return uvi;
+        });
+    }
+
+    private static String uvPath(double lat, double lon) {
+        return String.format("uvi?lat=%.6f&lon=%.6f", lat, lon);
+    }
+
+    /**
+     * Retrieves the current weather together with the UV index for a city.
+     * When the city's coordinates are already known, from an earlier
+     * response or the city index, both requests are sent
+     * in parallel; otherwise the UV request starts as soon as the current
+     * weather response reports them.
+     *
+     * @param city  the name of the city (e.g. "Prague")
+     * @param units the unit system ("metric" or "imperial")
+     * @return the combined {@link CurrentConditions}
+     * @throws Exception if either fetch or parsing fails
+     */
+    public CurrentConditions getCurrentBundle(String city, String units) throws Exception {
+        return await(getCurrentBundleAsync(city, units));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getCurrentBundle(String, String)}.
+     *
+     * @param city  the name of the city (e.g. "Prague")
+     * @param units the unit system ("metric" or "imperial")
+     * @return a future of the combined {@link CurrentConditions}
+     */
+    public CompletableFuture<CurrentConditions> getCurrentBundleAsync(String city, String units) {
+        double[] known = coordinates.lookup(city);
+        City indexed = known == null && cityIndex != null ? cityIndex.resolve(city) : null;
+        if (indexed != null) {
+            known = new double[] {indexed.getLat(), indexed.getLon()};
+        }
+        CompletableFuture<WeatherData> current = getCurrentAsync(city, units);
+        CompletableFuture<Double> uvi = known != null
+            ? fetchUVIndexAsync(known[0], known[1])
+            : current.thenCompose(wd -> fetchUVIndexAsync(wd.getLat(), wd.getLon()));
+        return current.thenCombine(uvi, CurrentConditions::new);
     }
 
     /**
      * Retrieves a list of forecast entries for the specified city.
+     * Prefer {@link #getForecastSeries} where one object per data point is not needed.
      *
      * @param city  the name of the city
      * @param units the unit system ("metric" or "imperial")
@@ -120,24 +1139,113 @@ public class WeatherService {
      * @throws Exception if the fetch or parsing fails
      */
     public List<ForecastEntry> getForecast(String city, String units, int cnt) throws Exception {
-        String q = "forecast?q=" + URLEncoder.encode(city, StandardCharsets.UTF_8)
-                 + "&units=" + units + "&cnt=" + cnt;
-        JsonNode list = fetch(q).get("list");
-        return StreamSupport.stream(list.spliterator(), false)
-            .map(node -> {
-                ForecastEntry fe = new ForecastEntry();
-                fe.setTimestamp(node.get("dt").asLong());
-                fe.setTemp(node.get("main").get("temp").asDouble());
-                return fe;
-            })
-            .collect(Collectors.toList());
+        return await(getForecastAsync(city, units, cnt));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getForecast(String, String, int)}.
+     *
+     * @param city  the name of the city
+     * @param units the unit system ("metric" or "imperial")
+     * @param cnt   the number of forecast data points to retrieve
+     * @return a future of the forecast entries
+     */
+    public CompletableFuture<List<ForecastEntry>> getForecastAsync(String city, String units, int cnt) {
+        return getForecastSeriesAsync(city, units, cnt).thenApply(ForecastSeries::toEntries);
     }
 
     /**
-     * Clears the internal cache of API responses.
+     * Retrieves the first {@code cnt} forecast data points for the specified
+     * city as primitive columns.
+     *
+     * @param city  the name of the city
+     * @param units the unit system ("metric" or "imperial")
+     * @param cnt   the number of forecast data points to retrieve, at most
+     *              {@link #FORECAST_HORIZON} are available
+     * @return the {@link ForecastSeries}; for metric units it is shared with the cache
+     * @throws Exception if the fetch or parsing fails
+     */
+    public ForecastSeries getForecastSeries(String city, String units, int cnt) throws Exception {
+        return await(getForecastSeriesAsync(city, units, cnt));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getForecastSeries(String, String, int)}.
+     *
+     * @param city  the name of the city
+     * @param units the unit system ("metric" or "imperial")
+     * @param cnt   the number of forecast data points to retrieve
+     * @return a future of the {@link ForecastSeries}; failed with an
+     *         {@link IllegalArgumentException} if {@code cnt} is less than 1
+     */
+    public CompletableFuture<ForecastSeries> getForecastSeriesAsync(String city, String units, int cnt) {
+        if (cnt < 1) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("cnt must be positive: " + cnt));
+        }
+        return metricForecastAsync(city)
+            .thenApply(series -> Units.convert(series.slice(0, Math.min(cnt, series.size())), units));
+    }
+
+    /**
+     * Retrieves the full forecast horizon for the specified city.
+     *
+     * Every forecast view of a city is served from this one request and
+     * cache entry: take a prefix, a time window or a stride of the result
+     * with {@link ForecastSeries#slice}, {@link ForecastSeries#between} or
+     * {@link ForecastSeries#every}, which copy nothing.
+     *
+     * @param city  the name of the city
+     * @param units the unit system ("metric" or "imperial")
+     * @return a future of up to {@link #FORECAST_HORIZON} data points;
+     *         for metric units it is shared with the cache
+     */
+    public CompletableFuture<ForecastSeries> getForecastSeriesAsync(String city, String units) {
+        return metricForecastAsync(city).thenApply(series -> Units.convert(series, units));
+    }
+
+    private CompletableFuture<ForecastSeries> metricForecastAsync(String city) {
+        String q = cityQuery("forecast", city) + "&units=" + Units.METRIC + "&cnt=" + FORECAST_HORIZON;
+        return fetchAsync(q, forecastParser::parse);
+    }
+
+    /**
+     * @return the cache and per-endpoint request metrics of this service
+     */
+    public ServiceMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Releases the disk cache file, if any, and unregisters the metrics MBean.
+     * The service must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        metrics.unregisterMBean();
+        if (disk != null) {
+            try {
+                disk.close();
+            } catch (IOException ignored) {
+                // nothing left to do with the file
+            }
+        }
+    }
+
+    /**
+     * Clears the internal cache of API responses, including the disk cache.
      * Subsequent calls will fetch fresh data until the next cache expiration.
      */
     public void clearCache() {
         cache.invalidateAll();
+        if (uvGrid != null) {
+            uvGrid.clear();
+        }
+        if (disk != null) {
+            try {
+                disk.clear();
+            } catch (IOException ignored) {
+                // a failed truncate only leaves entries that expire on their own
+            }
+        }
     }
 }
@@ -0,0 +1,77 @@
+// src/test/java/com/example/weather/bench/CurrentBatchBenchmark.java
+package com.example.weather.bench;
+
+import com.example.weather.model.BatchResult;
+import com.example.weather.model.WeatherData;
+import com.example.weather.service.StubWeatherServer;
+import com.example.weather.service.WeatherService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cities per second loaded by {@link WeatherService#getCurrentBatchAsync}
+ * from a local stub server, as the concurrency limit grows. The cache is
+ * cleared before every batch so each city costs one upstream request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CurrentBatchBenchmark {
+
+    private static final int CITIES = 64;
+
+    @Param({"1", "4", "16", "64"})
+    public int concurrency;
+
+    @Param({"20"})
+    public long latencyMillis;
+
+    private StubWeatherServer stub;
+    private WeatherService service;
+    private final List<String> cities = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        stub = new StubWeatherServer();
+        stub.setLatencyMillis(latencyMillis);
+        service = new WeatherService("bench", stub.baseUrl());
+        for (int i = 0; i < CITIES; i++) {
+            cities.add("City" + i);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        service.clearCache();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        stub.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CITIES)
+    public BatchResult<WeatherData> batch() throws Exception {
+        return service.getCurrentBatchAsync(cities, "metric", concurrency).get();
+    }
+}
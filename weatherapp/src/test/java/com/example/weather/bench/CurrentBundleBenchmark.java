@@ -0,0 +1,83 @@
+// src/test/java/com/example/weather/bench/CurrentBundleBenchmark.java
+package com.example.weather.bench;
+
+import com.example.weather.model.CurrentConditions;
+import com.example.weather.model.WeatherData;
+import com.example.weather.service.CoordinateTable;
+import com.example.weather.service.StubWeatherServer;
+import com.example.weather.service.WeatherService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a full current-conditions refresh against a local stub server.
+ *
+ * {@code cold} forgets the city's coordinates before every call, so the UV
+ * request has to wait for the current-weather response; {@code warm} keeps
+ * them, so both requests go out together. The response cache is cleared
+ * before every call in both cases. {@link #sequential} is the old
+ * getCurrent-then-fetchUVIndex sequence for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CurrentBundleBenchmark {
+
+    @Param({"cold", "warm"})
+    public String coordinates;
+
+    @Param({"20"})
+    public long latencyMillis;
+
+    private StubWeatherServer stub;
+    private CoordinateTable table;
+    private WeatherService service;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        stub = new StubWeatherServer();
+        stub.setLatencyMillis(latencyMillis);
+        table = new CoordinateTable();
+        service = new WeatherService("bench", stub.baseUrl(), table);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        service.clearCache();
+        if ("cold".equals(coordinates)) {
+            table.clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        stub.close();
+    }
+
+    @Benchmark
+    public CurrentConditions bundle() throws Exception {
+        return service.getCurrentBundle("Prague", "metric");
+    }
+
+    @Benchmark
+    public double sequential() throws Exception {
+        WeatherData wd = service.getCurrent("Prague", "metric");
+        return service.fetchUVIndex(wd.getLat(), wd.getLon());
+    }
+}
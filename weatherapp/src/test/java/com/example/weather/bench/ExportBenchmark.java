@@ -0,0 +1,89 @@
+// src/test/java/com/example/weather/bench/ExportBenchmark.java
+package com.example.weather.bench;
+
+import com.example.weather.model.ForecastSeries;
+import com.example.weather.service.ForecastCsv;
+import com.example.weather.service.SeriesExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporting a year of 3-hourly forecasts (2920 points) for 100 cities to a
+ * discarding stream.
+ *
+ * {@link #forecastCsv} is the per-city {@link ForecastCsv} path through a
+ * buffered writer; the others go through {@link SeriesExporter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    private static final int CITIES = 100;
+    private static final ZoneId ZONE = ZoneId.of("Europe/Prague");
+
+    private ForecastSeries series;
+
+    @Setup
+    public void create() {
+        int n = 365 * 8;
+        long[] ts = new long[n];
+        double[] temps = new double[n];
+        for (int i = 0; i < n; i++) {
+            ts[i] = 1672531200L + i * 10800L;
+            temps[i] = Math.round(1000 * Math.sin(i / 40.0)) / 100.0;
+        }
+        series = new ForecastSeries(ts, temps, n);
+    }
+
+    @Benchmark
+    public void forecastCsv() throws Exception {
+        try (BufferedWriter w = new BufferedWriter(
+                new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8))) {
+            for (int c = 0; c < CITIES; c++) {
+                ForecastCsv.write(series, w, ZONE);
+            }
+        }
+    }
+
+    @Benchmark
+    public void exporterCsv() throws Exception {
+        export(SeriesExporter.Format.CSV, false);
+    }
+
+    @Benchmark
+    public void exporterCsvGzip() throws Exception {
+        export(SeriesExporter.Format.CSV, true);
+    }
+
+    @Benchmark
+    public void exporterBinary() throws Exception {
+        export(SeriesExporter.Format.BINARY, false);
+    }
+
+    private void export(SeriesExporter.Format format, boolean gzip) throws Exception {
+        try (SeriesExporter e = SeriesExporter.forecasts(OutputStream.nullOutputStream(), format, ZONE, gzip)) {
+            for (int c = 0; c < CITIES; c++) {
+                e.write("city" + c, series);
+            }
+        }
+    }
+}
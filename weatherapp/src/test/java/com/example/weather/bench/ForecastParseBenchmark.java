@@ -0,0 +1,77 @@
+// src/test/java/com/example/weather/bench/ForecastParseBenchmark.java
+package com.example.weather.bench;
+
+import com.example.weather.model.ForecastEntry;
+import com.example.weather.model.ForecastSeries;
+import com.example.weather.service.ForecastParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Tree-based versus streaming parsing of the recorded 40-entry forecast payload.
+ *
+ * {@link #tree} is the previous path (body as String, readTree, spliterator);
+ * {@link #streaming} is {@link ForecastParser} filling a {@link ForecastSeries},
+ * and {@link #streamingEntries} additionally converts that to a list. Compare the
+ * {@code gc.alloc.rate.norm} column for the allocation difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForecastParseBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ForecastParser parser = new ForecastParser(mapper.getFactory());
+    private byte[] body;
+
+    @Setup
+    public void load() throws Exception {
+        try (InputStream is = getClass().getResourceAsStream("/payloads/forecast.json")) {
+            body = is.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public List<ForecastEntry> tree() throws Exception {
+        JsonNode list = mapper.readTree(new String(body, StandardCharsets.UTF_8)).get("list");
+        return StreamSupport.stream(list.spliterator(), false)
+            .map(node -> {
+                ForecastEntry fe = new ForecastEntry();
+                fe.setTimestamp(node.get("dt").asLong());
+                fe.setTemp(node.get("main").get("temp").asDouble());
+                return fe;
+            })
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public ForecastSeries streaming() throws Exception {
+        return parser.parse(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public List<ForecastEntry> streamingEntries() throws Exception {
+        return parser.parse(new ByteArrayInputStream(body)).toEntries();
+    }
+}
@@ -0,0 +1,66 @@
+// src/test/java/com/example/weather/bench/HedgeBenchmark.java
+package com.example.weather.bench;
+
+import com.example.weather.service.StubWeatherServer;
+import com.example.weather.service.WeatherService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of uncached UV index lookups from a local stub
+ * server that answers in 5-7 ms but takes 200 ms for 2% of responses,
+ * with and without hedging at the 95th percentile. Compare the p99 of the
+ * sample-time output; the p50 shows what hedging costs the typical request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class HedgeBenchmark {
+
+    @Param({"false", "true"})
+    public boolean hedge;
+
+    private StubWeatherServer stub;
+    private WeatherService service;
+    private long lookups;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        stub = new StubWeatherServer();
+        stub.setLatency(5, 2);
+        stub.setLatencyOutliers(0.02, 200);
+        WeatherService.Builder b = WeatherService.builder("bench").baseUrl(stub.baseUrl());
+        if (hedge) {
+            b.hedge(95, 0.1);
+        }
+        service = b.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        stub.close();
+    }
+
+    @Benchmark
+    public double lookup() throws Exception {
+        // a new location every time, so that nothing is served from the cache
+        long n = lookups++;
+        return service.fetchUVIndex(-60 + (n % 12_000) * 0.01, (n / 12_000) * 0.01);
+    }
+}
@@ -0,0 +1,103 @@
+// src/test/java/com/example/weather/bench/HotPathBenchmark.java
+package com.example.weather.bench;
+
+import com.example.weather.model.ForecastEntry;
+import com.example.weather.model.ForecastSeries;
+import com.example.weather.model.WeatherData;
+import com.example.weather.service.ForecastCsv;
+import com.example.weather.service.Transport;
+import com.example.weather.service.WeatherService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of the service's hot paths with the network taken out.
+ *
+ * The service talks to an in-memory {@link Transport} that answers with the
+ * recorded payloads, so a {@code *Miss} benchmark measures the full
+ * request-parse-map-cache pipeline (the cache is cleared first) and a
+ * {@code *Hit} benchmark measures a cache lookup plus unit handling.
+ * {@link #csv} formats the recorded forecast as the CSV export does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotPathBenchmark {
+
+    private WeatherService service;
+    private ForecastSeries series;
+
+    @Setup
+    public void start() throws Exception {
+        Map<String, byte[]> payloads = new HashMap<>();
+        for (String endpoint : new String[] {"weather", "uvi", "forecast"}) {
+            try (InputStream is = getClass().getResourceAsStream("/payloads/" + endpoint + ".json")) {
+                payloads.put(endpoint, is.readAllBytes());
+            }
+        }
+        Transport replay = (uri, timeout) -> {
+            String path = uri.getPath();
+            byte[] body = payloads.get(path.substring(path.lastIndexOf('/') + 1));
+            return CompletableFuture.completedFuture(new Transport.Response(200, body));
+        };
+        service = WeatherService.builder("bench")
+            .baseUrl("http://replay.invalid/")
+            .transport(replay)
+            .build();
+        series = service.getForecastSeries("Prague", "metric", 40);
+    }
+
+    @Benchmark
+    public WeatherData currentMiss() throws Exception {
+        service.clearCache();
+        return service.getCurrent("Prague", "metric");
+    }
+
+    @Benchmark
+    public WeatherData currentHit() throws Exception {
+        return service.getCurrent("Prague", "metric");
+    }
+
+    @Benchmark
+    public WeatherData currentHitImperial() throws Exception {
+        return service.getCurrent("Prague", "imperial");
+    }
+
+    @Benchmark
+    public List<ForecastEntry> forecastMiss() throws Exception {
+        service.clearCache();
+        return service.getForecast("Prague", "metric", 40);
+    }
+
+    @Benchmark
+    public List<ForecastEntry> forecastHit() throws Exception {
+        return service.getForecast("Prague", "metric", 40);
+    }
+
+    @Benchmark
+    public String csv() throws Exception {
+        StringWriter out = new StringWriter(2048);
+        ForecastCsv.write(series, out, ZoneOffset.UTC);
+        return out.toString();
+    }
+}
@@ -0,0 +1,101 @@
+// src/test/java/com/example/weather/bench/MicroBatchBenchmark.java
+package com.example.weather.bench;
+
+import com.example.weather.model.WeatherData;
+import com.example.weather.service.StubWeatherServer;
+import com.example.weather.service.WeatherService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to answer a burst of current-weather lookups of 64 known cities from
+ * a local stub server, without micro-batching ({@code windowMillis = 0})
+ * and with group requests collected over growing windows. The cache is
+ * cleared before every burst; the {@code upstreamRequests} counter shows
+ * how many requests a burst cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MicroBatchBenchmark {
+
+    private static final int CITIES = 64;
+
+    @Param({"0", "2", "10"})
+    public long windowMillis;
+
+    @Param({"20"})
+    public long latencyMillis;
+
+    private StubWeatherServer stub;
+    private WeatherService service;
+    private final List<String> cities = new ArrayList<>();
+
+    /** Upstream requests per burst, reported next to the time. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Requests {
+        public long upstreamRequests;
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        stub = new StubWeatherServer();
+        stub.setLatencyMillis(latencyMillis);
+        WeatherService.Builder b = WeatherService.builder("bench").baseUrl(stub.baseUrl());
+        if (windowMillis > 0) {
+            b.microBatch(Duration.ofMillis(windowMillis));
+        }
+        service = b.build();
+        for (int i = 0; i < CITIES; i++) {
+            cities.add("City" + i);
+            service.getCurrent("City" + i, "metric");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        service.clearCache();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        stub.close();
+    }
+
+    @Benchmark
+    public List<WeatherData> burst(Requests requests) throws Exception {
+        int before = stub.totalHits();
+        List<CompletableFuture<WeatherData>> futures = new ArrayList<>(CITIES);
+        for (String city : cities) {
+            futures.add(service.getCurrentAsync(city, "metric"));
+        }
+        List<WeatherData> out = new ArrayList<>(CITIES);
+        for (CompletableFuture<WeatherData> f : futures) {
+            out.add(f.get());
+        }
+        requests.upstreamRequests += stub.totalHits() - before;
+        return out;
+    }
+}
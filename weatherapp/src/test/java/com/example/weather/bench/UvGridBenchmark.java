@@ -0,0 +1,102 @@
+// src/test/java/com/example/weather/bench/UvGridBenchmark.java
+package com.example.weather.bench;
+
+import com.example.weather.service.StubWeatherServer;
+import com.example.weather.service.WeatherService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UV index lookups of 500 places scattered over a 50 x 50 km area, keyed
+ * by exact coordinates ({@code precision = 0}) and by geohash cells with
+ * the nearest-cell fallback. {@code cachedLookup} is the cost of a lookup
+ * answered from the cache; {@code coldArea} looks up every place once after
+ * clearing the cache and counts the upstream requests that took.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UvGridBenchmark {
+
+    private static final int PLACES = 500;
+
+    @Param({"0", "5"})
+    public int precision;
+
+    private StubWeatherServer stub;
+    private WeatherService service;
+    private final double[] lat = new double[PLACES];
+    private final double[] lon = new double[PLACES];
+    private int next;
+
+    /** Upstream requests per cold pass over the area. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Requests {
+        public long upstreamRequests;
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        stub = new StubWeatherServer();
+        WeatherService.Builder b = WeatherService.builder("bench").baseUrl(stub.baseUrl());
+        if (precision > 0) {
+            b.uvGrid(precision, true);
+        }
+        service = b.build();
+        Random random = new Random(7);
+        for (int i = 0; i < PLACES; i++) {
+            lat[i] = 50 + random.nextDouble() * 0.45;
+            lon[i] = 14.2 + random.nextDouble() * 0.7;
+        }
+        for (int i = 0; i < PLACES; i++) {
+            service.fetchUVIndex(lat[i], lon[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        stub.close();
+    }
+
+    @Benchmark
+    public double cachedLookup() throws Exception {
+        int i = next;
+        next = i + 1 == PLACES ? 0 : i + 1;
+        return service.fetchUVIndex(lat[i], lon[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public double coldArea(Requests requests) throws Exception {
+        service.clearCache();
+        int before = stub.hits("uvi");
+        double sum = 0;
+        for (int i = 0; i < PLACES; i++) {
+            sum += service.fetchUVIndex(lat[i], lon[i]);
+        }
+        requests.upstreamRequests += stub.hits("uvi") - before;
+        return sum;
+    }
+}
@@ -0,0 +1,95 @@
+// src/test/java/com/example/weather/bench/WarmStartBenchmark.java
+package com.example.weather.bench;
+
+import com.example.weather.model.ForecastSeries;
+import com.example.weather.service.StubWeatherServer;
+import com.example.weather.service.WeatherService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from constructing a service to having everything the main view
+ * shows after startup (current conditions and forecast), as a restarted
+ * application would see it, plus the upstream calls that took.
+ *
+ * {@code memory} starts with an empty cache; {@code disk} opens a response
+ * cache file written by a previous service. JavaFX rendering itself is not
+ * part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class WarmStartBenchmark {
+
+    @Param({"memory", "disk"})
+    public String tier;
+
+    @Param({"20"})
+    public long latencyMillis;
+
+    private StubWeatherServer stub;
+    private Path file;
+
+    /** Upstream requests per restart, reported next to the timing. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Upstream {
+        public long calls;
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        stub = new StubWeatherServer();
+        stub.setLatencyMillis(latencyMillis);
+        file = Files.createTempDirectory("warm-start").resolve("responses.cache");
+        try (WeatherService previous = open()) {
+            firstData(previous);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        stub.close();
+    }
+
+    private WeatherService open() {
+        return WeatherService.builder("bench")
+            .baseUrl(stub.baseUrl())
+            .diskCache("disk".equals(tier) ? file : null)
+            .build();
+    }
+
+    private static ForecastSeries firstData(WeatherService service) throws Exception {
+        service.getCurrentBundle("Prague", "metric");
+        return service.getForecastSeries("Prague", "metric", 24);
+    }
+
+    @Benchmark
+    public ForecastSeries restart(Upstream upstream) throws Exception {
+        int before = stub.totalHits();
+        try (WeatherService service = open()) {
+            return firstData(service);
+        } finally {
+            upstream.calls += stub.totalHits() - before;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+// src/test/java/com/example/weather/model/ForecastSeriesTest.java
+package com.example.weather.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ForecastSeries} class.
+ * Verifies views and statistics over the primitive columns.
+ */
+public class ForecastSeriesTest {
+
+    private static final long T0 = 1_687_780_800L;
+    private static final long STEP = 3 * 3600;
+
+    private static ForecastSeries threeHourly(int n) {
+        long[] ts = new long[n];
+        double[] temps = new double[n];
+        for (int i = 0; i < n; i++) {
+            ts[i] = T0 + i * STEP;
+            temps[i] = i;
+        }
+        return new ForecastSeries(ts, temps, n);
+    }
+
+    /**
+     * Tests that the daily view matches taking every 8th point of 3-hourly data.
+     */
+    @Test
+    public void testDailyTakesEveryEighthPoint() {
+        ForecastSeries daily = threeHourly(24).daily();
+        assertEquals(3, daily.size());
+        assertEquals(T0 + 8 * STEP, daily.timestampAt(1));
+        assertEquals(16.0, daily.tempAt(2), 0.0);
+    }
+
+    /**
+     * Tests that slices of strided views index into the original columns.
+     */
+    @Test
+    public void testSliceOfStridedView() {
+        ForecastSeries view = threeHourly(40).every(2).slice(3, 6);
+        assertEquals(3, view.size());
+        assertEquals(6.0, view.tempAt(0), 0.0);
+        assertEquals(10.0, view.tempAt(2), 0.0);
+        assertThrows(IndexOutOfBoundsException.class, () -> view.tempAt(3));
+    }
+
+    /**
+     * Tests time windows, including ones outside the series.
+     */
+    @Test
+    public void testBetween() {
+        ForecastSeries series = threeHourly(40);
+        ForecastSeries day = series.between(T0 + STEP, T0 + 9 * STEP);
+        assertEquals(8, day.size());
+        assertEquals(1.0, day.tempAt(0), 0.0);
+        assertEquals(3, series.every(2).between(T0 + 1, T0 + 6 * STEP + 1).size());
+        assertEquals(0, series.between(T0 - STEP, T0).size());
+        assertEquals(0, series.between(T0 + 50 * STEP, T0 + 60 * STEP).size());
+        assertEquals(0, series.between(T0 + 5 * STEP, T0).size());
+    }
+
+    /**
+     * Tests min, max and mean, including the empty series.
+     */
+    @Test
+    public void testStatistics() {
+        ForecastSeries series = threeHourly(5);
+        assertEquals(0.0, series.min(), 0.0);
+        assertEquals(4.0, series.max(), 0.0);
+        assertEquals(2.0, series.mean(), 0.0);
+        assertTrue(Double.isNaN(series.slice(2, 2).mean()));
+    }
+}
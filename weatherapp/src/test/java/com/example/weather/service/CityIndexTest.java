@@ -0,0 +1,76 @@
+// src/test/java/com/example/weather/service/CityIndexTest.java
+package com.example.weather.service;
+
+import com.example.weather.model.City;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link CityIndex} name resolution and autocomplete.
+ */
+public class CityIndexTest {
+
+    private static final CityIndex INDEX = CityIndex.bundled();
+
+    private static List<String> names(List<City> cities) {
+        return cities.stream().map(City::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * Tests that spellings of one city resolve to the same entry.
+     */
+    @Test
+    public void testResolveSpellings() {
+        City prague = INDEX.resolve("Prague");
+        assertEquals(3067696, prague.getId());
+        assertEquals("CZ", prague.getCountry());
+        for (String typed : new String[] {"prague", " Prague ", "PRAHA", "Praha", "prague, cz", "Prague,CZ"}) {
+            assertSame(prague, INDEX.resolve(typed), typed);
+        }
+        assertEquals("Plze\u0148", INDEX.resolve("plzen").getName());
+        assertEquals("\u010cesk\u00e9 Bud\u011bjovice", INDEX.resolve("ceske  budejovice").getName());
+        assertNull(INDEX.resolve("Prague, DE"));
+        assertNull(INDEX.resolve("Atlantis"));
+        assertNull(INDEX.resolve(""));
+    }
+
+    /**
+     * Tests that suggestions match names and aliases by prefix, most
+     * populous first and each city once.
+     */
+    @Test
+    public void testComplete() {
+        assertEquals(List.of("Paris", "Pardubice"), names(INDEX.complete("par", 10)));
+        assertEquals(List.of("Prague"), names(INDEX.complete("pra", 10)));
+        assertEquals(List.of("Prague"), names(INDEX.complete("prag", 10)));
+        assertEquals(List.of("Bratislava"), names(INDEX.complete("Pres", 10)));
+        List<City> b = INDEX.complete("b", 3);
+        assertEquals(List.of("Beijing", "Bangkok", "Berlin"), names(b));
+        assertTrue(INDEX.complete("b", 100).size() <= CityIndex.MAX_SUGGESTIONS);
+        assertTrue(INDEX.complete("", 10).isEmpty());
+        assertTrue(INDEX.complete("xyz", 10).isEmpty());
+    }
+
+    /**
+     * Tests that a name shared by two cities resolves to the larger one and
+     * that the country code picks the other.
+     */
+    @Test
+    public void testSharedNames() throws IOException {
+        CityIndex index = CityIndex.read(new StringReader(
+            "# test\n"
+                + "1\tSpringfield\tUS\t39.8\t-89.6\t114000\n"
+                + "2\tSpringfield\tAU\t-27.7\t153.0\t20000\tSpringfield Lakes\n"));
+        assertEquals(2, index.size());
+        assertEquals(1, index.resolve("springfield").getId());
+        assertEquals(2, index.resolve("Springfield, AU").getId());
+        assertEquals(2, index.complete("spring", 10).size());
+        assertThrows(IOException.class, () -> CityIndex.read(new StringReader("1\tBroken\n")));
+    }
+}
@@ -0,0 +1,62 @@
+// src/test/java/com/example/weather/service/CoordinateTableTest.java
+package com.example.weather.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link CoordinateTable} class.
+ * Verifies lookups, background saving and that a file-backed table survives a reload.
+ */
+public class CoordinateTableTest {
+
+    /**
+     * Tests that lookups ignore case and surrounding whitespace.
+     */
+    @Test
+    public void testLookupIsCaseInsensitive() {
+        CoordinateTable table = new CoordinateTable();
+        assertNull(table.lookup("Prague"));
+        table.remember("Prague", 50.088, 14.4208);
+        assertArrayEquals(new double[] {50.088, 14.4208}, table.lookup(" prague "), 0.0);
+    }
+
+    /**
+     * Tests that a new table over the same file sees previously remembered entries.
+     */
+    @Test
+    public void testFileBackedTableReloads(@TempDir Path dir) {
+        Path file = dir.resolve("coordinates.properties");
+        try (CoordinateTable table = new CoordinateTable(file)) {
+            table.remember("Prague", 50.088, 14.4208);
+        }
+
+        CoordinateTable reloaded = new CoordinateTable(file);
+        assertArrayEquals(new double[] {50.088, 14.4208}, reloaded.lookup("Prague"), 0.0);
+    }
+
+    /**
+     * Tests that remembering does not write the file itself and that the
+     * background save follows shortly after.
+     */
+    @Test
+    public void testChangesAreSavedInTheBackground(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("coordinates.properties");
+        try (CoordinateTable table = new CoordinateTable(file)) {
+            table.remember("Prague", 50.088, 14.4208);
+            table.remember("Brno", 49.1952, 16.608);
+            assertFalse(Files.exists(file), "saved on the caller's thread");
+
+            long deadline = System.currentTimeMillis() + 10 * CoordinateTable.SAVE_DELAY_MILLIS;
+            while (!Files.exists(file) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertArrayEquals(new double[] {49.1952, 16.608}, new CoordinateTable(file).lookup("brno"), 0.0);
+        }
+    }
+}
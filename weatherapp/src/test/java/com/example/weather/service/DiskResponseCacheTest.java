@@ -0,0 +1,121 @@
+// src/test/java/com/example/weather/service/DiskResponseCacheTest.java
+package com.example.weather.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link DiskResponseCache} class.
+ * Verifies persistence across reopening, superseding, compaction and crash recovery.
+ */
+public class DiskResponseCacheTest {
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tests that the latest record for a key is returned after reopening.
+     */
+    @Test
+    public void testLatestRecordSurvivesReopen(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("responses.cache");
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            cache.put("weather?q=Prague", 1L, bytes("old"));
+            cache.put("weather?q=Prague", 2L, bytes("new"));
+            cache.put("uvi?lat=1&lon=2", 3L, bytes("{}"));
+        }
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            DiskResponseCache.Entry e = cache.get("weather?q=Prague");
+            assertEquals(2L, e.getFetchedAt());
+            assertArrayEquals(bytes("new"), e.getBody());
+            assertArrayEquals(bytes("{}"), cache.get("uvi?lat=1&lon=2").getBody());
+            assertNull(cache.get("forecast?q=Prague"));
+        }
+    }
+
+    /**
+     * Tests that a torn trailing record is dropped and earlier ones are kept.
+     */
+    @Test
+    public void testTornTailIsTruncated(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("responses.cache");
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            cache.put("a", 1L, bytes("first"));
+            cache.put("b", 2L, bytes("second"));
+        }
+        long size = Files.size(file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(size - 3);
+        }
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            assertArrayEquals(bytes("first"), cache.get("a").getBody());
+            assertNull(cache.get("b"));
+            cache.put("b", 3L, bytes("again"));
+            assertArrayEquals(bytes("again"), cache.get("b").getBody());
+        }
+    }
+
+    /**
+     * Tests that a file with a foreign header is reset instead of misread.
+     */
+    @Test
+    public void testForeignFileIsReset(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("responses.cache");
+        Files.write(file, ByteBuffer.allocate(32).putInt(42).array());
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            assertNull(cache.get("a"));
+            cache.put("a", 1L, bytes("x"));
+            assertArrayEquals(bytes("x"), cache.get("a").getBody());
+        }
+    }
+
+    /**
+     * Tests that rewriting the same keys while open keeps the file small.
+     */
+    @Test
+    public void testCompactsWhileOpen(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("responses.cache");
+        byte[] body = new byte[64 * 1024];
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            for (int i = 0; i < 100; i++) {
+                body[0] = (byte) i;
+                cache.put("weather?q=Prague", i, body);
+                cache.put("weather?q=Brno", i, body);
+            }
+            assertTrue(Files.size(file) < 2 * DiskResponseCache.COMPACT_MIN_DEAD_BYTES + 4 * body.length,
+                "file size " + Files.size(file));
+            assertEquals(99L, cache.get("weather?q=Prague").getFetchedAt());
+            assertEquals(99, cache.get("weather?q=Brno").getBody()[0]);
+        }
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            assertEquals(99L, cache.get("weather?q=Brno").getFetchedAt());
+        }
+    }
+
+    /**
+     * Tests that queued writes land in order and are flushed by closing.
+     */
+    @Test
+    public void testPutAsync(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("responses.cache");
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            cache.putAsync("a", 1L, bytes("first"));
+            cache.putAsync("a", 2L, bytes("second")).get();
+            assertArrayEquals(bytes("second"), cache.get("a").getBody());
+            cache.putAsync("b", 3L, bytes("late"));
+        }
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            assertArrayEquals(bytes("late"), cache.get("b").getBody());
+        }
+    }
+}
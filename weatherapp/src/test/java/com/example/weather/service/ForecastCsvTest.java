@@ -0,0 +1,83 @@
+// src/test/java/com/example/weather/service/ForecastCsvTest.java
+package com.example.weather.service;
+
+import com.example.weather.model.AggregateSeries;
+import com.example.weather.model.ForecastSeries;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ForecastCsv} formatting.
+ */
+public class ForecastCsvTest {
+
+    /**
+     * Tests the header and the per-point lines in the requested zone.
+     */
+    @Test
+    public void testWritesHeaderAndLines() throws Exception {
+        ForecastSeries series = new ForecastSeries(
+            new long[] {1700000000L, 1700010800L}, new double[] {12.5, -0.25}, 2);
+        StringWriter out = new StringWriter();
+
+        ForecastCsv.write(series, out, ZoneOffset.UTC);
+
+        String nl = System.lineSeparator();
+        assertEquals("datetime,temp" + nl
+            + "2023-11-14 22:13,12.5" + nl
+            + "2023-11-15 01:13,-0.25" + nl, out.toString());
+    }
+
+    /**
+     * Tests the summary header with percentile columns and the per-window lines.
+     */
+    @Test
+    public void testWritesSummary() throws Exception {
+        AggregateSeries summary = new AggregateSeries(new long[] {1699920000L}, new int[] {3},
+            new double[] {1.0}, new double[] {3.0}, new double[] {2.0},
+            new double[] {50, 99.9}, new double[][] {{2.0}, {3.0}}, 1);
+        StringWriter out = new StringWriter();
+
+        ForecastCsv.write(summary, out, ZoneOffset.UTC);
+
+        String nl = System.lineSeparator();
+        assertEquals("start,count,min,mean,max,p50,p99.9" + nl
+            + "2023-11-14 00:00,3,1.0,2.0,3.0,2.0,3.0" + nl, out.toString());
+    }
+
+    /**
+     * Tests that a daily summary of a full forecast starting mid-afternoon
+     * has only whole local days, as the forecast export writes it.
+     */
+    @Test
+    public void testDailySummaryHasOnlyWholeDays() throws Exception {
+        ZoneId prague = ZoneId.of("Europe/Prague");
+        // 2023-06-26 13:00 UTC, 15:00 in Prague
+        long start = 1_687_784_400L;
+        long[] ts = new long[WeatherService.FORECAST_HORIZON];
+        double[] temps = new double[ts.length];
+        for (int i = 0; i < ts.length; i++) {
+            ts[i] = start + i * 3 * 3600L;
+            temps[i] = i;
+        }
+        AggregateSeries daily = SeriesAggregator.aggregateWhole(new ForecastSeries(ts, temps, ts.length),
+            SeriesAggregator.Window.DAY, prague, 50).head(3);
+        StringWriter out = new StringWriter();
+
+        ForecastCsv.write(daily, out, prague);
+
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(4, lines.length);
+        assertEquals("2023-06-27 00:00,8", lines[1].substring(0, 18));
+        for (int i = 1; i < lines.length; i++) {
+            String[] fields = lines[i].split(",");
+            assertTrue(fields[0].endsWith(" 00:00"), lines[i]);
+            assertEquals("8", fields[1], lines[i]);
+        }
+    }
+}
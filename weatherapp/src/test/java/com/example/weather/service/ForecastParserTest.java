@@ -0,0 +1,58 @@
+// src/test/java/com/example/weather/service/ForecastParserTest.java
+package com.example.weather.service;
+
+import com.example.weather.model.ForecastSeries;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ForecastParser} class.
+ * Verifies that the streaming parser extracts the same values as a tree walk.
+ */
+public class ForecastParserTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ForecastParser parser = new ForecastParser(mapper.getFactory());
+
+    /**
+     * Tests that every entry of the recorded payload matches the tree-based values.
+     */
+    @Test
+    public void testMatchesTreeOnRecordedPayload() throws Exception {
+        byte[] body;
+        try (InputStream is = getClass().getResourceAsStream("/payloads/forecast.json")) {
+            body = is.readAllBytes();
+        }
+        JsonNode list = mapper.readTree(body).get("list");
+        ForecastSeries series = parser.parse(new ByteArrayInputStream(body));
+
+        assertEquals(list.size(), series.size());
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(list.get(i).get("dt").asLong(), series.timestampAt(i));
+            assertEquals(list.get(i).get("main").get("temp").asDouble(), series.tempAt(i), 0.0);
+        }
+    }
+
+    /**
+     * Tests that field order does not matter and unrelated nested values are skipped.
+     */
+    @Test
+    public void testFieldOrderAndSkippedValues() throws Exception {
+        String json = "{\"city\":{\"name\":\"Prague\",\"coord\":{\"lat\":1}},"
+                    + "\"list\":[{\"main\":{\"feels_like\":1.5,\"temp\":2.5},"
+                    + "\"weather\":[{\"main\":\"Rain\"}],\"dt\":100}]}";
+        ForecastSeries series = parser.parse(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, series.size());
+        assertEquals(100, series.timestampAt(0));
+        assertEquals(2.5, series.tempAt(0), 0.0);
+    }
+}
@@ -0,0 +1,55 @@
+// src/test/java/com/example/weather/service/GeoHashTest.java
+package com.example.weather.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GeoHash} cell arithmetic.
+ */
+public class GeoHashTest {
+
+    /**
+     * Tests that cells match well-known geohashes.
+     */
+    @Test
+    public void testEncodeMatchesGeohash() {
+        assertEquals("u4pruydqqvj", GeoHash.toString(GeoHash.encode(57.64911, 10.40744, 11), 11));
+        assertEquals("u2fkb", GeoHash.toString(GeoHash.encode(50.0755, 14.4378, 5), 5));
+        assertEquals("ezs42", GeoHash.toString(GeoHash.encode(42.605, -5.603, 5), 5));
+        assertEquals(GeoHash.encode(10, -170, 4), GeoHash.encode(10, 190, 4));
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.checkPrecision(13));
+    }
+
+    /**
+     * Tests that a cell's centre lies in the cell and that nearby points share it.
+     */
+    @Test
+    public void testCentreAndNearbyPoints() {
+        long cell = GeoHash.encode(50.0755, 14.4378, 6);
+        double lat = GeoHash.latitude(cell, 6);
+        double lon = GeoHash.longitude(cell, 6);
+        assertEquals(cell, GeoHash.encode(lat, lon, 6));
+        // cells of 6 characters are about 0.0055 degrees high and 0.011 wide
+        assertEquals(cell, GeoHash.encode(lat - 0.002, lon + 0.004, 6));
+        assertNotEquals(cell, GeoHash.encode(50.2, 14.4378, 6));
+    }
+
+    /**
+     * Tests moving between cells, across the antimeridian and up to a pole.
+     */
+    @Test
+    public void testNeighbours() {
+        long cell = GeoHash.encode(50.0755, 14.4378, 5);
+        long east = GeoHash.neighbour(cell, 5, 0, 1);
+        assertTrue(GeoHash.longitude(east, 5) > GeoHash.longitude(cell, 5));
+        assertEquals(GeoHash.latitude(cell, 5), GeoHash.latitude(east, 5), 1e-9);
+        assertEquals(cell, GeoHash.neighbour(east, 5, 0, -1));
+        assertEquals(cell, GeoHash.neighbour(GeoHash.neighbour(cell, 5, 1, 1), 5, -1, -1));
+
+        long west = GeoHash.encode(0, -179.99, 5);
+        assertEquals(GeoHash.encode(0, 179.99, 5), GeoHash.neighbour(west, 5, 0, -1));
+        assertEquals(-1, GeoHash.neighbour(GeoHash.encode(89.99, 0, 5), 5, 1, 0));
+    }
+}
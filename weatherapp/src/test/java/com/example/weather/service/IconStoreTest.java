@@ -0,0 +1,63 @@
+// src/test/java/com/example/weather/service/IconStoreTest.java
+package com.example.weather.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link IconStore} download directory.
+ */
+public class IconStoreTest {
+
+    /**
+     * Tests that an icon is downloaded once, then served from the directory,
+     * also by a new store over the same directory.
+     */
+    @Test
+    public void testDownloadsEachIconOnce(@TempDir Path dir) throws Exception {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G'};
+        List<String> requested = new CopyOnWriteArrayList<>();
+        Transport transport = (uri, timeout) -> {
+            requested.add(uri.toString());
+            return CompletableFuture.completedFuture(new Transport.Response(200, png));
+        };
+
+        IconStore store = new IconStore(dir, "http://icons.invalid/", transport);
+        assertArrayEquals(png, store.get("10d").get(5, TimeUnit.SECONDS));
+        assertArrayEquals(png, store.get("10d").get(5, TimeUnit.SECONDS));
+        assertArrayEquals(png, new IconStore(dir, "http://icons.invalid/", transport)
+            .get("10d").get(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("http://icons.invalid/10d@2x.png"), requested);
+        assertTrue(Files.exists(dir.resolve("10d.png")));
+
+        store.preloadAll().get(5, TimeUnit.SECONDS);
+        assertEquals(IconStore.ALL_CODES.size(), requested.size());
+    }
+
+    /**
+     * Tests that codes which are not icon codes never reach the file system
+     * and fail the returned future like any other error.
+     */
+    @Test
+    public void testRejectsForeignCodes(@TempDir Path dir) {
+        IconStore store = new IconStore(dir, "http://icons.invalid/", (uri, timeout) -> {
+            throw new AssertionError("no request expected");
+        });
+        for (String code : new String[] {"../../etc/passwd", null}) {
+            CompletableFuture<byte[]> f = store.get(code);
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, ex.getCause(), String.valueOf(code));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+// src/test/java/com/example/weather/service/LatencyHistogramTest.java
+package com.example.weather.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link LatencyHistogram} percentiles.
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Tests that percentiles of 1..1000 ms land within the bucket precision.
+     */
+    @Test
+    public void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(Duration.ZERO, h.percentile(99));
+        for (int ms = 1; ms <= 1000; ms++) {
+            h.record(Duration.ofMillis(ms).toNanos());
+        }
+        assertEquals(1000, h.count());
+        assertEquals(Duration.ofMillis(1000), h.max());
+        assertEquals(500.5, h.mean().toNanos() / 1e6, 1e-6);
+        for (double p : new double[] {50, 90, 99}) {
+            double actual = h.percentile(p).toNanos() / 1e6;
+            assertTrue(actual >= p * 10 && actual <= p * 10 * 1.125, p + "th: " + actual);
+        }
+        assertEquals(Duration.ofMillis(1000), h.percentile(100));
+    }
+
+    /**
+     * Tests that every bucket's upper bound maps back to that bucket.
+     */
+    @Test
+    public void testBucketBoundsAreConsistent() {
+        for (int i = 0; i < 400; i++) {
+            long upper = LatencyHistogram.upperBound(i);
+            assertEquals(i, LatencyHistogram.index(upper));
+            assertEquals(i + 1, LatencyHistogram.index(upper + 1));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+// src/test/java/com/example/weather/service/ObservationStoreTest.java
+package com.example.weather.service;
+
+import com.example.weather.model.ObservationSeries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ObservationStore} class.
+ * Verifies lossless round trips, time-window queries, persistence of sealed
+ * and open blocks across reopening, crash recovery and compactness.
+ */
+public class ObservationStoreTest {
+
+    private static final long START = 1_700_000_000L;
+    private static final long STEP = 15 * 60;
+
+    /** Rounds to two decimals, as the API reports values. */
+    private static double api(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+
+    /** Appends {@code n} plausible 15-minute samples with a few irregular gaps. */
+    private static void fill(ObservationStore store, String city, int n) throws Exception {
+        for (int i = 0; i < n; i++) {
+            long ts = START + i * STEP + (i % 97 == 0 ? 7 : 0);
+            double temp = api(10 + 5 * Math.sin(i / 20.0));
+            store.append(city, ts, temp, api(temp - 1.5), 60 + i % 20, 1013 - i % 7, (i % 11) * 0.5);
+        }
+    }
+
+    private static void assertSample(ObservationSeries s, int row, int i) {
+        double temp = api(10 + 5 * Math.sin(i / 20.0));
+        assertEquals(START + i * STEP + (i % 97 == 0 ? 7 : 0), s.timestampAt(row));
+        assertEquals(temp, s.tempAt(row));
+        assertEquals(api(temp - 1.5), s.feelsLikeAt(row));
+        assertEquals(60 + i % 20, s.humidityAt(row));
+        assertEquals(1013 - i % 7, s.pressureAt(row));
+        assertEquals((i % 11) * 0.5, s.windSpeedAt(row));
+    }
+
+    /**
+     * Tests that every field comes back exactly, across several sealed blocks
+     * and the open block.
+     */
+    @Test
+    public void testRoundTrip(@TempDir Path dir) throws Exception {
+        int n = ObservationStore.BLOCK_SIZE * 3 + 17;
+        try (ObservationStore store = new ObservationStore(dir)) {
+            fill(store, "Prague", n);
+            ObservationSeries all = store.query("prague", Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(n, all.size());
+            for (int i = 0; i < n; i++) {
+                assertSample(all, i, i);
+            }
+        }
+    }
+
+    /**
+     * Tests that values with more than two decimals also come back exactly.
+     */
+    @Test
+    public void testRoundTripOfArbitraryDoubles(@TempDir Path dir) throws Exception {
+        int n = ObservationStore.BLOCK_SIZE + 3;
+        try (ObservationStore store = new ObservationStore(dir)) {
+            for (int i = 0; i < n; i++) {
+                store.append("Prague", START + i * STEP, Math.PI * i, -Math.E * (i % 5), 50, 1000, 1.0 / (i + 1));
+            }
+            ObservationSeries s = store.query("Prague", Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(n, s.size());
+            for (int i = 0; i < n; i++) {
+                assertEquals(Math.PI * i, s.tempAt(i));
+                assertEquals(-Math.E * (i % 5), s.feelsLikeAt(i));
+                assertEquals(1.0 / (i + 1), s.windSpeedAt(i));
+            }
+        }
+    }
+
+    /**
+     * Tests that a query returns only the observations inside the window,
+     * including ones spanning a block boundary.
+     */
+    @Test
+    public void testRangeQuery(@TempDir Path dir) throws Exception {
+        try (ObservationStore store = new ObservationStore(dir)) {
+            fill(store, "Prague", 1000);
+            fill(store, "Brno", 10);
+            int first = ObservationStore.BLOCK_SIZE - 5;
+            ObservationSeries s = store.query("Prague", START + first * STEP, START + (first + 10) * STEP);
+            assertEquals(10, s.size());
+            for (int i = 0; i < 10; i++) {
+                assertSample(s, i, first + i);
+            }
+            assertEquals(0, store.query("Prague", 0, START).size());
+            assertEquals(10, store.query("Brno", 0, Long.MAX_VALUE).size());
+            assertEquals(0, store.query("Ostrava", 0, Long.MAX_VALUE).size());
+        }
+    }
+
+    /**
+     * Tests that sealed blocks and the open block survive reopening.
+     */
+    @Test
+    public void testReopen(@TempDir Path dir) throws Exception {
+        int n = ObservationStore.BLOCK_SIZE + 40;
+        try (ObservationStore store = new ObservationStore(dir)) {
+            fill(store, "Prague", n);
+        }
+        try (ObservationStore store = new ObservationStore(dir)) {
+            ObservationSeries s = store.query("Prague", Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(n, s.size());
+            assertSample(s, n - 1, n - 1);
+            store.append("Prague", START + n * STEP, 1, 1, 1, 1, 1);
+            assertEquals(n + 1, store.query("Prague", Long.MIN_VALUE, Long.MAX_VALUE).size());
+        }
+    }
+
+    /**
+     * Tests that a torn tail record is dropped and earlier ones are kept.
+     */
+    @Test
+    public void testTornTailIsTruncated(@TempDir Path dir) throws Exception {
+        try (ObservationStore store = new ObservationStore(dir)) {
+            fill(store, "Prague", 3);
+        }
+        Path tail = dir.resolve("prague.tail");
+        try (FileChannel ch = FileChannel.open(tail, StandardOpenOption.WRITE)) {
+            ch.truncate(Files.size(tail) - 3);
+        }
+        try (ObservationStore store = new ObservationStore(dir)) {
+            assertEquals(2, store.query("Prague", Long.MIN_VALUE, Long.MAX_VALUE).size());
+        }
+    }
+
+    /**
+     * Tests that regular 15-minute samples compress to a small fraction of
+     * their 40-byte raw size.
+     */
+    @Test
+    public void testCompact(@TempDir Path dir) throws Exception {
+        int n = ObservationStore.BLOCK_SIZE * 8;
+        try (ObservationStore store = new ObservationStore(dir)) {
+            fill(store, "Prague", n);
+        }
+        double perSample = (double) Files.size(dir.resolve("prague.obs")) / n;
+        assertTrue(perSample < 8, "bytes per sample: " + perSample);
+    }
+
+    /**
+     * Tests that an observation not newer than the latest one is skipped,
+     * also after reopening.
+     */
+    @Test
+    public void testOlderObservationsAreSkipped(@TempDir Path dir) throws Exception {
+        int n = ObservationStore.BLOCK_SIZE + 2;
+        try (ObservationStore store = new ObservationStore(dir)) {
+            fill(store, "Prague", n);
+            assertFalse(store.append("Prague", START + (n - 1) * STEP, 1, 1, 1, 1, 1));
+        }
+        try (ObservationStore store = new ObservationStore(dir)) {
+            assertFalse(store.append("Prague", START, 1, 1, 1, 1, 1));
+            assertTrue(store.append("Prague", START + n * STEP, 1, 1, 1, 1, 1));
+            assertEquals(n + 1, store.query("Prague", Long.MIN_VALUE, Long.MAX_VALUE).size());
+        }
+    }
+
+    /**
+     * Tests that a scan hands over the window block by block, in order.
+     */
+    @Test
+    public void testScanVisitsBlocks(@TempDir Path dir) throws Exception {
+        int n = ObservationStore.BLOCK_SIZE * 2 + 17;
+        try (ObservationStore store = new ObservationStore(dir)) {
+            fill(store, "Prague", n);
+            List<ObservationSeries> blocks = new ArrayList<>();
+            store.scan("prague", Long.MIN_VALUE, Long.MAX_VALUE, blocks::add);
+            assertEquals(3, blocks.size());
+            assertEquals(ObservationStore.BLOCK_SIZE, blocks.get(0).size());
+            assertEquals(17, blocks.get(2).size());
+            int i = 0;
+            for (ObservationSeries block : blocks) {
+                for (int row = 0; row < block.size(); row++) {
+                    assertSample(block, row, i++);
+                }
+            }
+            assertEquals(n, i);
+
+            // only the second block overlaps
+            long from = START + (ObservationStore.BLOCK_SIZE + 10) * STEP;
+            blocks.clear();
+            store.scan("Prague", from, from + 5 * STEP, blocks::add);
+            assertEquals(1, blocks.size());
+            assertEquals(5, blocks.get(0).size());
+            assertSample(blocks.get(0), 0, ObservationStore.BLOCK_SIZE + 10);
+
+            store.scan("Ostrava", Long.MIN_VALUE, Long.MAX_VALUE, block -> fail("no history"));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+// src/test/java/com/example/weather/service/RateLimiterTest.java
+package com.example.weather.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link RateLimiter} token bucket.
+ */
+public class RateLimiterTest {
+
+    /**
+     * Tests that a burst goes out at once and later requests are spaced at the rate.
+     */
+    @Test
+    public void testBurstThenSteadyRate() {
+        RateLimiter limiter = new RateLimiter(10, 2);
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        long third = TimeUnit.NANOSECONDS.toMillis(limiter.reserve());
+        long fourth = TimeUnit.NANOSECONDS.toMillis(limiter.reserve());
+        assertTrue(third > 80 && third <= 100, "third waits " + third + " ms");
+        assertTrue(fourth > 180 && fourth <= 200, "fourth waits " + fourth + " ms");
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1));
+    }
+}
@@ -0,0 +1,50 @@
+// src/test/java/com/example/weather/service/RecentLatencyTest.java
+package com.example.weather.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link RecentLatency} sliding window.
+ */
+public class RecentLatencyTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    /**
+     * Tests that observations leave the window once their interval is older
+     * than the window, and that the percentile follows the recent ones.
+     */
+    @Test
+    public void testOldIntervalsDropOut() {
+        RecentLatency recent = new RecentLatency(Duration.ofSeconds(10), 3);
+        long t = 1_000 * SECOND;
+        for (int i = 0; i < 100; i++) {
+            recent.record(Duration.ofMillis(1000).toNanos(), t);
+        }
+        assertEquals(100, recent.count(t));
+        assertEquals(Duration.ofMillis(1000), recent.percentile(50, t));
+
+        // two intervals later the slow samples are still in the window
+        long later = t + 20 * SECOND;
+        for (int i = 0; i < 300; i++) {
+            recent.record(Duration.ofMillis(10).toNanos(), later);
+        }
+        assertEquals(400, recent.count(later));
+        assertEquals(Duration.ofMillis(1000), recent.percentile(99, later));
+
+        // one more and they are gone
+        long gone = later + 10 * SECOND;
+        assertEquals(300, recent.count(gone));
+        double p99 = recent.percentile(99, gone).toNanos() / 1e6;
+        assertTrue(p99 >= 10 && p99 <= 10 * 1.125, "p99: " + p99);
+
+        // the first slot, reused a full lap later, starts empty
+        recent.record(Duration.ofMillis(5).toNanos(), gone);
+        assertEquals(301, recent.count(gone));
+        assertEquals(Duration.ZERO, recent.percentile(50, t + 100 * SECOND));
+    }
+}
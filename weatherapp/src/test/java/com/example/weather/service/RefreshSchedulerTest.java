@@ -0,0 +1,68 @@
+// src/test/java/com/example/weather/service/RefreshSchedulerTest.java
+package com.example.weather.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@link RefreshScheduler} against a local {@link StubWeatherServer}.
+ */
+public class RefreshSchedulerTest {
+
+    /**
+     * Tests that a round refreshes the visible city first, spreads the other
+     * cities over the interval and skips a city that was just fetched.
+     */
+    @Test
+    public void testRoundPrioritizesVisibleAndSkipsFresh() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService service = new WeatherService("dummy-api-key", stub.baseUrl());
+            service.getCurrent("Prague", "metric");
+
+            List<String> refreshed = new CopyOnWriteArrayList<>();
+            List<Long> times = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(2);
+            try (RefreshScheduler scheduler = new RefreshScheduler(service, Duration.ofMillis(600))) {
+                scheduler.setWatched(List.of("Prague", "Brno", "Ostrava"));
+                scheduler.setVisible("Ostrava");
+                scheduler.addListener((city, data, err) -> {
+                    assertNull(err);
+                    refreshed.add(city);
+                    times.add(System.nanoTime());
+                    done.countDown();
+                });
+                scheduler.start();
+                assertTrue(done.await(5, TimeUnit.SECONDS));
+                scheduler.stop();
+            }
+
+            assertEquals(List.of("Ostrava", "Brno"), refreshed.subList(0, 2));
+            long gapMillis = TimeUnit.NANOSECONDS.toMillis(times.get(1) - times.get(0));
+            assertTrue(gapMillis >= 300, "reloads should be spread, gap " + gapMillis + " ms");
+            assertEquals(3, stub.hits("weather"));
+        }
+    }
+
+    /**
+     * Tests that a forced refresh goes upstream even when the cache is fresh.
+     */
+    @Test
+    public void testRefreshBypassesFreshCache() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService service = new WeatherService("dummy-api-key", stub.baseUrl());
+            assertNull(service.currentAge("Prague"));
+            service.getCurrent("Prague", "metric");
+            assertTrue(service.currentAge("Prague").toMillis() < 5_000);
+
+            service.refreshCurrentAsync("Prague", "metric").get(5, TimeUnit.SECONDS);
+            assertEquals(2, stub.hits("weather"));
+        }
+    }
+}
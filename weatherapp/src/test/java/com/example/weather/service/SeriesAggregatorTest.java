@@ -0,0 +1,155 @@
+// src/test/java/com/example/weather/service/SeriesAggregatorTest.java
+package com.example.weather.service;
+
+import com.example.weather.model.AggregateSeries;
+import com.example.weather.model.ForecastSeries;
+import com.example.weather.model.ObservationSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link SeriesAggregator} class.
+ * Verifies window alignment, statistics, percentiles and the parallel path.
+ */
+public class SeriesAggregatorTest {
+
+    // 2023-06-26 12:00 UTC, a Monday
+    private static final long T0 = 1_687_780_800L;
+    private static final long STEP = 3 * 3600;
+
+    private static ForecastSeries threeHourly(int n) {
+        long[] ts = new long[n];
+        double[] temps = new double[n];
+        for (int i = 0; i < n; i++) {
+            ts[i] = T0 + i * STEP;
+            temps[i] = i;
+        }
+        return new ForecastSeries(ts, temps, n);
+    }
+
+    /**
+     * Tests that 3-hourly points starting at noon are grouped into calendar
+     * days with a partial first day.
+     */
+    @Test
+    public void testDailyStatistics() {
+        AggregateSeries daily = SeriesAggregator.aggregate(threeHourly(24), SeriesAggregator.Window.DAY,
+            ZoneOffset.UTC, 50, 100);
+
+        assertEquals(4, daily.size());
+        assertEquals(T0 - 12 * 3600, daily.startAt(0));
+        assertEquals(4, daily.countAt(0));
+        assertEquals(0.0, daily.minAt(0));
+        assertEquals(3.0, daily.maxAt(0));
+        assertEquals(1.5, daily.meanAt(0));
+        assertEquals(1.0, daily.percentileAt(0, 50));
+        assertEquals(8, daily.countAt(1));
+        assertEquals(4.0, daily.minAt(1));
+        assertEquals(11.0, daily.percentileAt(1, 100));
+        assertEquals(4, daily.countAt(3));
+        assertThrows(IllegalArgumentException.class, () -> daily.percentileAt(0, 90));
+    }
+
+    /**
+     * Tests that only days the forecast covers completely are aggregated.
+     */
+    @Test
+    public void testAggregateWholeTrimsPartialDays() {
+        // noon on the first day to 09:00 on the fourth
+        AggregateSeries daily = SeriesAggregator.aggregateWhole(threeHourly(24), SeriesAggregator.Window.DAY,
+            ZoneOffset.UTC);
+        assertEquals(2, daily.size());
+        assertEquals(T0 + 12 * 3600, daily.startAt(0));
+        assertEquals(8, daily.countAt(0));
+        assertEquals(4.0, daily.minAt(0));
+        assertEquals(8, daily.countAt(1));
+        assertEquals(19.0, daily.maxAt(1));
+
+        // a full horizon from midnight to 21:00 on the fifth day
+        long[] ts = new long[40];
+        double[] temps = new double[40];
+        for (int i = 0; i < ts.length; i++) {
+            ts[i] = T0 - 12 * 3600 + i * STEP;
+        }
+        AggregateSeries whole = SeriesAggregator.aggregateWhole(new ForecastSeries(ts, temps, 40),
+            SeriesAggregator.Window.DAY, ZoneOffset.UTC);
+        assertEquals(5, whole.size());
+        for (int i = 0; i < whole.size(); i++) {
+            assertEquals(8, whole.countAt(i));
+        }
+
+        assertEquals(0, SeriesAggregator.aggregateWhole(threeHourly(1), SeriesAggregator.Window.DAY,
+            ZoneOffset.UTC).size());
+    }
+
+    /**
+     * Tests that windows follow the calendar of the given zone.
+     */
+    @Test
+    public void testWindowsFollowZone() {
+        ZoneId prague = ZoneId.of("Europe/Prague");
+        AggregateSeries daily = SeriesAggregator.aggregate(threeHourly(8), SeriesAggregator.Window.DAY, prague);
+        // 12:00 UTC is 14:00 in Prague in summer; midnight falls after the 4th point
+        assertEquals(2, daily.size());
+        assertEquals(4, daily.countAt(0));
+        assertEquals(ZonedDateTime.of(2023, 6, 26, 0, 0, 0, 0, prague).toEpochSecond(), daily.startAt(0));
+
+        AggregateSeries weekly = SeriesAggregator.aggregate(threeHourly(80), SeriesAggregator.Window.WEEK,
+            ZoneOffset.UTC);
+        assertEquals(2, weekly.size());
+        assertEquals(T0 - 12 * 3600, weekly.startAt(0));
+        assertEquals(T0 - 12 * 3600 + 7 * 86_400, weekly.startAt(1));
+
+        AggregateSeries hourly = SeriesAggregator.aggregate(threeHourly(8), SeriesAggregator.Window.HOUR,
+            ZoneOffset.UTC);
+        assertEquals(8, hourly.size());
+    }
+
+    /**
+     * Tests that NaN values are skipped and an empty series gives no windows.
+     */
+    @Test
+    public void testSkipsNaN() {
+        ObservationSeries obs = new ObservationSeries(new long[] {T0, T0 + 60, T0 + 120},
+            new double[] {1, Double.NaN, 3}, new double[3], new int[3], new int[3], new double[3], 3);
+        AggregateSeries daily = SeriesAggregator.aggregate(obs, obs::tempAt, SeriesAggregator.Window.DAY,
+            ZoneOffset.UTC);
+        assertEquals(1, daily.size());
+        assertEquals(2, daily.countAt(0));
+        assertEquals(2.0, daily.meanAt(0));
+
+        assertEquals(0, SeriesAggregator.aggregate(threeHourly(0), SeriesAggregator.Window.DAY,
+            ZoneOffset.UTC).size());
+    }
+
+    /**
+     * Tests that the parallel path matches the sequential one and keeps the order.
+     */
+    @Test
+    public void testAggregateAll() {
+        Map<String, ForecastSeries> byCity = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            byCity.put("city" + i, threeHourly(8 + i));
+        }
+        Map<String, AggregateSeries> all = SeriesAggregator.aggregateAll(byCity, SeriesAggregator.Window.DAY,
+            ZoneOffset.UTC, 90);
+
+        assertEquals(List.copyOf(byCity.keySet()), List.copyOf(all.keySet()));
+        AggregateSeries expected = SeriesAggregator.aggregate(byCity.get("city49"), SeriesAggregator.Window.DAY,
+            ZoneOffset.UTC, 90);
+        AggregateSeries actual = all.get("city49");
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.meanAt(i), actual.meanAt(i));
+            assertEquals(expected.percentileAt(i, 90), actual.percentileAt(i, 90));
+        }
+    }
+}
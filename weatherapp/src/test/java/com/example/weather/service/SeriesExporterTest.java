@@ -0,0 +1,135 @@
+// src/test/java/com/example/weather/service/SeriesExporterTest.java
+package com.example.weather.service;
+
+import com.example.weather.model.ForecastSeries;
+import com.example.weather.model.ObservationSeries;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link SeriesExporter} class.
+ * Verifies CSV and binary output, gzip and time formatting across zones.
+ */
+public class SeriesExporterTest {
+
+    private static final String NL = System.lineSeparator();
+
+    private static ForecastSeries forecast() {
+        return new ForecastSeries(new long[] {1700000000L, 1700010800L}, new double[] {12.5, -0.25}, 2);
+    }
+
+    /**
+     * Tests forecast rows of several cities, with quoting of odd city names.
+     */
+    @Test
+    public void testForecastCsv() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SeriesExporter e = SeriesExporter.forecasts(bytes, SeriesExporter.Format.CSV, ZoneOffset.UTC, false)) {
+            e.write("Prague", forecast());
+            e.write("Washington, D.C.", forecast().slice(1, 2));
+        }
+        assertEquals("city,datetime,temp" + NL
+            + "Prague,2023-11-14 22:13,12.5" + NL
+            + "Prague,2023-11-15 01:13,-0.25" + NL
+            + "\"Washington, D.C.\",2023-11-15 01:13,-0.25" + NL,
+            bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that CSV times match {@link ForecastCsv} over a daylight saving
+     * change and across many days.
+     */
+    @Test
+    public void testTimesMatchForecastCsv() throws Exception {
+        ZoneId prague = ZoneId.of("Europe/Prague");
+        int n = 2000;
+        long[] ts = new long[n];
+        double[] temps = new double[n];
+        for (int i = 0; i < n; i++) {
+            // hourly-ish from 2023-03-20, past the change on 2023-03-26
+            ts[i] = 1679270400L + i * 3541L;
+            temps[i] = i * 0.25;
+        }
+        ForecastSeries series = new ForecastSeries(ts, temps, n);
+        StringWriter expected = new StringWriter();
+        ForecastCsv.write(series, expected, prague);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SeriesExporter e = SeriesExporter.forecasts(bytes, SeriesExporter.Format.CSV, prague, false)) {
+            e.write("X", series);
+        }
+        String actual = bytes.toString(StandardCharsets.UTF_8)
+            .replace(NL + "X,", NL)
+            .replaceFirst("city,", "");
+        assertEquals(expected.toString(), actual);
+    }
+
+    /**
+     * Tests gzipped observation CSV.
+     */
+    @Test
+    public void testGzippedObservations() throws Exception {
+        ObservationSeries obs = new ObservationSeries(new long[] {1700000000L}, new double[] {3.5},
+            new double[] {1.25}, new int[] {80}, new int[] {1012}, new double[] {4.0}, 1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SeriesExporter e = SeriesExporter.observations(bytes, SeriesExporter.Format.CSV, ZoneOffset.UTC, true)) {
+            e.write("Brno", obs);
+            assertThrows(IllegalStateException.class, () -> e.write("Brno", forecast()));
+        }
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(SeriesExporter.OBSERVATION_HEADER + NL
+            + "Brno,2023-11-14 22:13,3.5,1.25,80,1012,4.0" + NL, csv);
+    }
+
+    /**
+     * Tests the columnar binary layout, with chunks larger than the buffer.
+     */
+    @Test
+    public void testBinary() throws Exception {
+        int n = 10_000;
+        long[] ts = new long[n];
+        double[] temps = new double[n];
+        for (int i = 0; i < n; i++) {
+            ts[i] = 1700000000L + i * 10800L;
+            temps[i] = i / 4.0;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SeriesExporter e = SeriesExporter.forecasts(bytes, SeriesExporter.Format.BINARY, ZoneOffset.UTC, false)) {
+            e.write("Praha", new ForecastSeries(ts, temps, n));
+            e.write("Brno", forecast());
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(SeriesExporter.MAGIC, in.readInt());
+        assertEquals(SeriesExporter.VERSION, in.readInt());
+        assertEquals(0, in.readByte());
+        byte[] city = new byte[in.readInt()];
+        in.readFully(city);
+        assertEquals("Praha", new String(city, StandardCharsets.UTF_8));
+        assertEquals(n, in.readInt());
+        for (int i = 0; i < n; i++) {
+            assertEquals(ts[i], in.readLong());
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(temps[i], in.readDouble());
+        }
+        in.readFully(new byte[in.readInt()]);
+        assertEquals(2, in.readInt());
+        assertEquals(1700000000L, in.readLong());
+        in.readLong();
+        assertEquals(12.5, in.readDouble());
+        assertEquals(-0.25, in.readDouble());
+        assertEquals(-1, in.read());
+    }
+}
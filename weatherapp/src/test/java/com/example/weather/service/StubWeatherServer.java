@@ -0,0 +1,319 @@
+// src/test/java/com/example/weather/service/StubWeatherServer.java
+package com.example.weather.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal local stand-in for the OpenWeatherMap API used by tests and
+ * benchmarks.
+ *
+ * Replays recorded payloads (by default those under {@code /payloads} on the
+ * classpath) for the {@code weather}, {@code uvi} and {@code forecast}
+ * endpoints and counts how many requests each endpoint received. A
+ * {@code weather} lookup of another city than the recorded one gets the
+ * recording with that city's name and a made-up ID; lookups by
+ * {@code id=} and the {@code group} endpoint ({@code id=1,2,...}) answer
+ * with such recordings too. Latency,
+ * latency outliers and error responses can be injected; the random choices
+ * are seeded so that runs are reproducible.
+ *
+ * {@link #main} serves the stub on a fixed port for manual runs of the app.
+ */
+public class StubWeatherServer implements AutoCloseable {
+
+    private static final String[] ENDPOINTS = {"weather", "uvi", "forecast"};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectNode weather;
+    // city names by ID, for group requests
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final Random random = new Random(42);
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double outlierRate;
+    private volatile long outlierMillis;
+    private volatile int status = 200;
+    private volatile double errorRate;
+    private volatile int errorStatus = 500;
+
+    /**
+     * Starts a stub server on an ephemeral loopback port that replays the
+     * payloads bundled with the tests.
+     *
+     * @throws IOException if the server socket cannot be bound
+     */
+    public StubWeatherServer() throws IOException {
+        this(0, null);
+    }
+
+    /**
+     * Starts a stub server on a loopback port.
+     *
+     * @param port       the port to bind, or 0 for an ephemeral one
+     * @param payloadDir directory holding {@code <endpoint>.json} recordings,
+     *                   or {@code null} for the bundled ones
+     * @throws IOException if the socket cannot be bound or a recording cannot be read
+     */
+    public StubWeatherServer(int port, Path payloadDir) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        Map<String, byte[]> bodies = new HashMap<>();
+        for (String endpoint : ENDPOINTS) {
+            byte[] body = payloadDir != null
+                ? Files.readAllBytes(payloadDir.resolve(endpoint + ".json"))
+                : load(endpoint);
+            bodies.put(endpoint, body);
+            hits.put(endpoint, new AtomicInteger());
+            if (!endpoint.equals("weather")) {
+                server.createContext("/" + endpoint, exchange -> respond(endpoint, body, exchange));
+            }
+        }
+        byte[] recorded = bodies.get("weather");
+        weather = (ObjectNode) mapper.readTree(recorded);
+        names.put(weather.path("id").asLong(), weather.path("name").asText());
+        server.createContext("/weather", exchange -> {
+            String id = query(exchange, "id");
+            if (id != null) {
+                long n = Long.parseLong(id);
+                respond("weather", n == weather.path("id").asLong() ? recorded
+                    : mapper.writeValueAsBytes(weatherOf(names.getOrDefault(n, "City " + n), n)), exchange);
+                return;
+            }
+            String city = query(exchange, "q");
+            respond("weather", city == null || city.equalsIgnoreCase(weather.path("name").asText())
+                ? recorded : mapper.writeValueAsBytes(weatherOf(city, idOf(city))), exchange);
+        });
+        hits.put("group", new AtomicInteger());
+        server.createContext("/group", exchange -> respond("group", group(query(exchange, "id")), exchange));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @param city a city name
+     * @return the ID the stub reports for the city
+     */
+    public long idOf(String city) {
+        if (city.equalsIgnoreCase(weather.path("name").asText())) {
+            return weather.path("id").asLong();
+        }
+        long id = 1 + Math.floorMod(city.toLowerCase(Locale.ROOT).hashCode(), 1_000_000_000L);
+        names.putIfAbsent(id, city);
+        return id;
+    }
+
+    private ObjectNode weatherOf(String city, long id) {
+        ObjectNode node = weather.deepCopy();
+        node.put("name", city);
+        node.put("id", id);
+        return node;
+    }
+
+    private byte[] group(String ids) throws IOException {
+        ObjectNode root = mapper.createObjectNode();
+        ArrayNode list = root.putArray("list");
+        if (ids != null) {
+            for (String id : ids.split(",")) {
+                long n = Long.parseLong(id.trim());
+                ObjectNode city = weatherOf(names.getOrDefault(n, "City " + n), n);
+                city.remove("cod");
+                list.add(city);
+            }
+        }
+        root.put("cnt", list.size());
+        return mapper.writeValueAsBytes(root);
+    }
+
+    private static String query(HttpExchange exchange, String name) {
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return null;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the API root to hand to {@link WeatherService}, ending with a slash
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Delays every response by the given amount, to keep requests in flight.
+     *
+     * @param millis the delay in milliseconds
+     */
+    public void setLatencyMillis(long millis) {
+        setLatency(millis, 0);
+    }
+
+    /**
+     * Delays every response by {@code baseMillis} plus a uniformly random
+     * extra of up to {@code jitterMillis}.
+     *
+     * @param baseMillis   the minimum delay in milliseconds
+     * @param jitterMillis the largest extra delay in milliseconds
+     */
+    public void setLatency(long baseMillis, long jitterMillis) {
+        this.latencyMillis = baseMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    /**
+     * Makes a random fraction of responses much slower than the rest.
+     *
+     * @param rate   the fraction of responses, from 0 to 1, that are delayed
+     * @param millis the delay of such a response in milliseconds
+     */
+    public void setLatencyOutliers(double rate, long millis) {
+        this.outlierRate = rate;
+        this.outlierMillis = millis;
+    }
+
+    /**
+     * Makes every endpoint answer with the given HTTP status and an empty body
+     * (or the recorded payload again for 200).
+     *
+     * @param status the HTTP status code to return
+     */
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * Makes a random fraction of responses fail with the given status and an
+     * empty body.
+     *
+     * @param rate   the fraction of responses, from 0 to 1, that fail
+     * @param status the HTTP status code of a failed response
+     */
+    public void setErrorRate(double rate, int status) {
+        this.errorRate = rate;
+        this.errorStatus = status;
+    }
+
+    /**
+     * @param endpoint one of {@code weather}, {@code uvi}, {@code forecast} or {@code group}
+     * @return how many requests the endpoint has received
+     */
+    public int hits(String endpoint) {
+        return hits.get(endpoint).get();
+    }
+
+    /**
+     * @return how many requests all endpoints together have received
+     */
+    public int totalHits() {
+        return hits.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    private synchronized double nextRandom() {
+        return random.nextDouble();
+    }
+
+    private long nextDelay() {
+        if (outlierRate > 0 && nextRandom() < outlierRate) {
+            return outlierMillis;
+        }
+        long jitter = jitterMillis > 0 ? (long) (nextRandom() * jitterMillis) : 0;
+        return latencyMillis + jitter;
+    }
+
+    private int nextStatus() {
+        if (errorRate > 0 && nextRandom() < errorRate) {
+            return errorStatus;
+        }
+        return status;
+    }
+
+    private void respond(String endpoint, byte[] body, HttpExchange exchange) throws IOException {
+        hits.get(endpoint).incrementAndGet();
+        try {
+            long delay = nextDelay();
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            int code = nextStatus();
+            if (code != 200) {
+                exchange.sendResponseHeaders(code, -1);
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] load(String endpoint) {
+        try (InputStream is = StubWeatherServer.class.getResourceAsStream("/payloads/" + endpoint + ".json")) {
+            return is.readAllBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Serves the stub until the process is killed.
+     *
+     * @param args {@code [port [payloadDir [latencyMillis [errorRate]]]]}
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        Path dir = args.length > 1 && !args[1].isEmpty() ? Paths.get(args[1]) : null;
+        StubWeatherServer stub = new StubWeatherServer(port, dir);
+        if (args.length > 2) {
+            stub.setLatencyMillis(Long.parseLong(args[2]));
+        }
+        if (args.length > 3) {
+            stub.setErrorRate(Double.parseDouble(args[3]), 503);
+        }
+        System.out.println("Serving stub weather API at " + stub.baseUrl());
+    }
+}
@@ -0,0 +1,77 @@
+// src/test/java/com/example/weather/service/TaskRunnerTest.java
+package com.example.weather.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link TaskRunner} cancellation and concurrency bound.
+ */
+public class TaskRunnerTest {
+
+    /**
+     * Tests that a new task for a view cancels the previous one and that only
+     * the latest task reports its result.
+     */
+    @Test
+    public void testNewerTaskSupersedesOlder() throws Exception {
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        try (TaskRunner runner = new TaskRunner(2, Runnable::run)) {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<String> slow = runner.run("current", () -> {
+                started.countDown();
+                Thread.sleep(10_000);
+                return "slow";
+            }, delivered::add, ex -> delivered.add("error"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            runner.run("current", () -> "fast", r -> {
+                delivered.add(r);
+                done.countDown();
+            }, ex -> delivered.add("error"));
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertTrue(slow.isCancelled());
+            assertEquals(List.of("fast"), delivered);
+        }
+    }
+
+    /**
+     * Tests that no more than the configured number of tasks run at once and
+     * that failures reach the error callback.
+     */
+    @Test
+    public void testConcurrencyIsBoundedAndErrorsDelivered() throws Exception {
+        int limit = 2;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(8);
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        try (TaskRunner runner = new TaskRunner(limit, Runnable::run)) {
+            for (int i = 0; i < 8; i++) {
+                runner.run("view" + i, () -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(50);
+                    running.decrementAndGet();
+                    throw new IllegalStateException("boom");
+                }, r -> finished.countDown(), ex -> {
+                    errors.add(ex);
+                    finished.countDown();
+                });
+            }
+            assertTrue(finished.await(10, TimeUnit.SECONDS));
+        }
+        assertEquals(limit, peak.get());
+        assertEquals(8, errors.size());
+        assertEquals("boom", errors.get(0).getMessage());
+    }
+}
@@ -0,0 +1,45 @@
+// src/test/java/com/example/weather/service/UnitsTest.java
+package com.example.weather.service;
+
+import com.example.weather.model.WeatherData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link Units} conversions.
+ */
+public class UnitsTest {
+
+    /**
+     * Tests the temperature and wind conversions to imperial units.
+     */
+    @Test
+    public void testImperialConversion() {
+        WeatherData metric = new WeatherData();
+        metric.setTemp(20.0);
+        metric.setFeelsLike(-40.0);
+        metric.setWindSpeed(10.0);
+        metric.setHumidity(64);
+
+        WeatherData imperial = Units.convert(metric, Units.IMPERIAL);
+        assertEquals(68.0, imperial.getTemp(), 1e-9);
+        assertEquals(-40.0, imperial.getFeelsLike(), 1e-9);
+        assertEquals(22.369, imperial.getWindSpeed(), 0.001);
+        assertEquals(64, imperial.getHumidity());
+        assertEquals(20.0, metric.getTemp(), 0.0, "the cached metric data must stay untouched");
+    }
+
+    /**
+     * Tests that metric data is copied unchanged and unknown systems are rejected.
+     */
+    @Test
+    public void testMetricIsCopiedAndUnknownIsRejected() {
+        WeatherData metric = new WeatherData();
+        metric.setTemp(20);
+        WeatherData copy = Units.convert(metric, Units.METRIC);
+        assertNotSame(metric, copy);
+        assertEquals(20.0, copy.getTemp(), 0.0);
+        assertThrows(IllegalArgumentException.class, () -> Units.temperature(0, "kelvin"));
+    }
+}
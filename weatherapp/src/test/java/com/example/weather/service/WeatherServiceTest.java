@@ -1,12 +1,40 @@
 // src/test/java/com/example/weather/service/WeatherServiceTest.java
 package com.example.weather.service;
 
+import com.example.weather.model.BatchResult;
+import com.example.weather.model.CurrentConditions;
+import com.example.weather.model.ForecastEntry;
+import com.example.weather.model.ForecastSeries;
+import com.example.weather.model.ObservationSeries;
+import com.example.weather.model.WeatherData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.ObjectName;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Unit tests for the {@link WeatherService} class.
- * Verifies that cache-clearing does not throw when constructed with an API key.
+ * Verifies cache clearing and, against a local {@link StubWeatherServer},
+ * the request behaviour of the service.
  */
 public class WeatherServiceTest {
 
@@ -30,4 +58,664 @@ public class WeatherServiceTest {
         service.clearCache();
         // If no exception is thrown, the test passes
     }
+
+    /**
+     * Ensures that concurrent cache misses for the same city are coalesced
+     * into a single upstream request whose result every caller receives.
+     */
+    @Test
+    public void testConcurrentFetchesShareOneUpstreamCall() throws Exception {
+        int callers = 16;
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            stub.setLatencyMillis(300);
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl());
+            ExecutorService pool = Executors.newFixedThreadPool(callers);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<WeatherData>> results = new ArrayList<>();
+                for (int i = 0; i < callers; i++) {
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return stubbed.getCurrent("Prague", "metric");
+                    }));
+                }
+                start.countDown();
+                for (Future<WeatherData> f : results) {
+                    assertEquals("Prague", f.get(10, TimeUnit.SECONDS).getCity());
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            assertEquals(1, stub.hits("weather"),
+                "concurrent callers should trigger exactly one upstream request");
+        }
+    }
+
+    /**
+     * Ensures that the async variants complete with the mapped results.
+     */
+    @Test
+    public void testAsyncVariantsComplete() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl());
+            CompletableFuture<WeatherData> current = stubbed.getCurrentAsync("Prague", "metric");
+            CompletableFuture<Double> uvi = stubbed.fetchUVIndexAsync(50.088, 14.4208);
+            CompletableFuture<List<ForecastEntry>> forecast = stubbed.getForecastAsync("Prague", "metric", 40);
+
+            assertEquals(18.42, current.get(10, TimeUnit.SECONDS).getTemp(), 0.0001);
+            assertEquals(6.38, uvi.get(10, TimeUnit.SECONDS), 0.0001);
+            assertEquals(40, forecast.get(10, TimeUnit.SECONDS).size());
+        }
+    }
+
+    /**
+     * Ensures that a non-200 response fails the future with the API error
+     * and is not cached, so the next call goes upstream again.
+     */
+    @Test
+    public void testAsyncErrorIsReportedAndNotCached() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl());
+            stub.setStatus(503);
+            ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> stubbed.getCurrentAsync("Prague", "metric").get(10, TimeUnit.SECONDS));
+            assertEquals("API error: 503", ex.getCause().getMessage());
+
+            stub.setStatus(200);
+            assertEquals("Prague", stubbed.getCurrent("Prague", "metric").getCity());
+            assertEquals(2, stub.hits("weather"));
+        }
+    }
+
+    /**
+     * Ensures that the bundle combines weather and UV index and records the
+     * city's coordinates for the next call.
+     */
+    @Test
+    public void testCurrentBundleRemembersCoordinates() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            CoordinateTable table = new CoordinateTable();
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl(), table);
+            CurrentConditions cc = stubbed.getCurrentBundle("Prague", "metric");
+
+            assertEquals("Prague", cc.getWeather().getCity());
+            assertEquals(6.38, cc.getUvIndex(), 0.0001);
+            assertArrayEquals(new double[] {50.088, 14.4208}, table.lookup("Prague"), 0.0);
+        }
+    }
+
+    /**
+     * Ensures that a cache hit is answered without another upstream request
+     * and that callers get their own copy, so changing it leaves the cached
+     * value alone.
+     */
+    @Test
+    public void testCacheHitReturnsPrivateCopy() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl());
+            WeatherData first = stubbed.getCurrent("Prague", "metric");
+            first.setTemp(-99);
+            first.setCity("Nowhere");
+            WeatherData second = stubbed.getCurrent("Prague", "metric");
+
+            assertNotSame(first, second);
+            assertEquals(18.42, second.getTemp(), 0.0001);
+            assertEquals("Prague", second.getCity());
+            assertEquals(1, stub.hits("weather"));
+        }
+    }
+
+    /**
+     * Ensures that switching units is served from the metric cache entry.
+     */
+    @Test
+    public void testUnitSwitchReusesCachedResponse() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl());
+            WeatherData metric = stubbed.getCurrent("Prague", "metric");
+            WeatherData imperial = stubbed.getCurrent("Prague", "imperial");
+
+            assertEquals(metric.getTemp() * 9 / 5 + 32, imperial.getTemp(), 1e-9);
+            assertEquals(1, stub.hits("weather"));
+        }
+    }
+
+    /**
+     * Ensures that a new service over the same disk cache answers from it
+     * while the data is fresh, and goes upstream once it is not.
+     */
+    @Test
+    public void testDiskCacheWarmsRestartedService(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("responses.cache");
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            // closing waits for the disk write
+            try (WeatherService first = WeatherService.builder("dummy-api-key")
+                    .baseUrl(stub.baseUrl()).diskCache(file).build()) {
+                first.getCurrent("Prague", "metric");
+            }
+
+            WeatherService restarted = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl()).diskCache(file).build();
+            assertEquals("Prague", restarted.getCurrent("Prague", "metric").getCity());
+            assertEquals(1, stub.hits("weather"), "a fresh disk entry should avoid the upstream call");
+
+            WeatherService expired = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl()).diskCache(file).cacheTtl(Duration.ZERO).build();
+            expired.getCurrent("Prague", "metric");
+            assertEquals(2, stub.hits("weather"), "a stale disk entry should not be served");
+        }
+    }
+
+    /**
+     * Ensures that forecasts of any length and unit system are cut from one
+     * upstream request for the full horizon.
+     */
+    @Test
+    public void testForecastViewsShareOneFetch() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl());
+            ForecastSeries full = stubbed.getForecastSeriesAsync("Prague", "metric").get(10, TimeUnit.SECONDS);
+            assertEquals(WeatherService.FORECAST_HORIZON, full.size());
+
+            ForecastSeries four = stubbed.getForecastSeries("Prague", "metric", 4);
+            assertEquals(4, four.size());
+            assertEquals(full.timestampAt(3), four.timestampAt(3));
+            assertEquals(24, stubbed.getForecast("Prague", "imperial", 24).size());
+            assertEquals(WeatherService.FORECAST_HORIZON, stubbed.getForecastSeries("Prague", "metric", 100).size());
+            assertEquals(1, stub.hits("forecast"));
+        }
+    }
+
+    /**
+     * Ensures that an invalid forecast length fails the returned future
+     * instead of throwing, and that the blocking variant throws the cause.
+     */
+    @Test
+    public void testInvalidForecastLengthFailsFuture() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl());
+            CompletableFuture<ForecastSeries> f = stubbed.getForecastSeriesAsync("Prague", "metric", 0);
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> f.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+            assertTrue(stubbed.getForecastAsync("Prague", "metric", -1).isCompletedExceptionally());
+            assertThrows(IllegalArgumentException.class, () -> stubbed.getForecastSeries("Prague", "metric", 0));
+            assertEquals(0, stub.hits("forecast"));
+        }
+    }
+
+    /**
+     * Ensures that with micro-batching a burst of lookups of known cities is
+     * sent as group requests of at most 20 IDs and fanned back out.
+     */
+    @Test
+    public void testMicroBatchGroupsKnownCities() throws Exception {
+        int cities = 45;
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService batched = WeatherService.builder("dummy-api-key").baseUrl(stub.baseUrl())
+                .microBatch(Duration.ofMillis(50)).build();
+            // the first lookups teach the service the city IDs
+            for (int i = 0; i < cities; i++) {
+                assertEquals(stub.idOf("City" + i), batched.getCurrent("City" + i, "metric").getCityId());
+            }
+            assertEquals(cities, stub.hits("weather"));
+            batched.clearCache();
+
+            List<CompletableFuture<WeatherData>> burst = new ArrayList<>();
+            for (int i = 0; i < cities; i++) {
+                burst.add(batched.getCurrentAsync("City" + i, "imperial"));
+            }
+            for (int i = 0; i < cities; i++) {
+                WeatherData wd = burst.get(i).get(10, TimeUnit.SECONDS);
+                assertEquals("City" + i, wd.getCity());
+                assertEquals(65.156, wd.getTemp(), 0.001);
+            }
+            assertEquals(cities, stub.hits("weather"), "known cities should not be looked up one by one");
+            assertEquals(3, stub.hits("group"));
+            assertEquals(cities, batched.metrics().getGroupedLookupCount());
+            // cached like single lookups
+            batched.getCurrent("City7", "metric");
+            assertEquals(3, stub.hits("group"));
+        }
+    }
+
+    /**
+     * Ensures that a failed group request fails every lookup in it.
+     */
+    @Test
+    public void testMicroBatchFailureReachesEveryCaller() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService batched = WeatherService.builder("dummy-api-key").baseUrl(stub.baseUrl())
+                .microBatch(Duration.ofMillis(20)).build();
+            batched.getCurrent("Prague", "metric");
+            batched.getCurrent("Brno", "metric");
+            batched.clearCache();
+            stub.setStatus(503);
+
+            CompletableFuture<WeatherData> prague = batched.getCurrentAsync("Prague", "metric");
+            CompletableFuture<WeatherData> brno = batched.getCurrentAsync("Brno", "metric");
+            for (CompletableFuture<WeatherData> f : List.of(prague, brno)) {
+                ExecutionException ex = assertThrows(ExecutionException.class, () -> f.get(10, TimeUnit.SECONDS));
+                assertEquals("API error: 503", ex.getCause().getMessage());
+            }
+            assertEquals(1, stub.hits("group"));
+        }
+    }
+
+    /**
+     * Ensures that current weather fetched upstream is recorded in the
+     * observation store, and cache hits are not recorded again.
+     */
+    @Test
+    public void testFetchedWeatherIsRecorded(@TempDir Path dir) throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer();
+             ObservationStore store = new ObservationStore(dir)) {
+            WeatherService stubbed = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl()).observationStore(store).build();
+            stubbed.getCurrent("Prague", "metric");
+            stubbed.getCurrent("Prague", "imperial");
+
+            ObservationSeries history = store.query("Prague", 0, Long.MAX_VALUE);
+            assertEquals(1, history.size());
+            assertEquals(18.42, history.tempAt(0), 0.0001);
+            // the measurement time reported by the API, not the fetch time
+            assertEquals(1687771200L, history.timestampAt(0));
+        }
+    }
+
+    /**
+     * Ensures that observations are recorded under the canonical name of the
+     * requested city and that refetching the same measurement adds nothing.
+     */
+    @Test
+    public void testObservationsAreKeyedByRequestedCity(@TempDir Path dir) throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer();
+             ObservationStore store = new ObservationStore(dir)) {
+            WeatherService stubbed = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl()).cityIndex(CityIndex.bundled()).observationStore(store).build();
+            stubbed.getCurrent("Pilsen", "metric");
+            stubbed.refreshCurrentAsync("Plzen", "metric").get();
+
+            assertEquals(1, store.query("Plze\u0148", 0, Long.MAX_VALUE).size());
+            // the stub answers with "Prague" as the city name
+            assertEquals(0, store.query("Prague", 0, Long.MAX_VALUE).size());
+        }
+    }
+
+    /**
+     * Ensures that with refresh-ahead an aging entry is returned immediately
+     * and replaced by a background reload.
+     */
+    @Test
+    public void testRefreshAheadServesStaleWhileReloading() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService stubbed = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl())
+                .refreshAfter(Duration.ofMillis(1))
+                .cacheTtl(Duration.ofMinutes(1))
+                .build();
+            stubbed.getCurrent("Prague", "metric");
+            Thread.sleep(5);
+            stub.setLatencyMillis(300);
+
+            assertNotNull(stubbed.getCurrentAsync("Prague", "metric").getNow(null),
+                "the stale entry should be returned without waiting for the reload");
+            // the old entry is older than this by now; the reload lands after about 300 ms
+            Thread.sleep(250);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (stubbed.currentAge("Prague").toMillis() >= 250 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(stubbed.currentAge("Prague").toMillis() < 250, "the reload should replace the entry");
+            assertEquals(2, stub.hits("weather"));
+        }
+    }
+
+    /**
+     * Ensures that a failed background refresh is not counted as a stale
+     * response served, since its caller already got the cached one.
+     */
+    @Test
+    public void testFailedRefreshAheadIsNotCountedAsStale() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService stubbed = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl())
+                .refreshAfter(Duration.ofMillis(1))
+                .cacheTtl(Duration.ofMinutes(1))
+                .staleIfError(Duration.ofMinutes(1))
+                .build();
+            WeatherData first = stubbed.getCurrent("Prague", "metric");
+            Thread.sleep(5);
+            stub.setStatus(503);
+
+            assertEquals(first.getTemp(), stubbed.getCurrent("Prague", "metric").getTemp());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (stubbed.metrics().endpoint("weather").getErrors().isEmpty()
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+            assertEquals(Map.of(503, 1L), stubbed.metrics().endpoint("weather").getErrors());
+            assertEquals(0, stubbed.metrics().getStaleServedCount());
+        }
+    }
+
+    /**
+     * Ensures that refresh-ahead must trigger before the hard expiry.
+     */
+    @Test
+    public void testRefreshAfterMustBeShorterThanTtl() {
+        assertThrows(IllegalArgumentException.class, () -> WeatherService.builder("dummy-api-key")
+            .refreshAfter(Duration.ofMinutes(10))
+            .cacheTtl(Duration.ofMinutes(10))
+            .build());
+    }
+
+    /**
+     * Ensures that a batch reports every city, deduplicates repeated names
+     * and keeps per-city failures in the result.
+     */
+    @Test
+    public void testCurrentBatchReportsResultsAndErrors() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl());
+            stubbed.getCurrent("Prague", "metric");
+            stub.setStatus(500);
+
+            BatchResult<WeatherData> batch = stubbed.getCurrentBatchAsync(
+                Arrays.asList("Prague", "Brno", "Prague", "Ostrava"), "metric", 2)
+                .get(10, TimeUnit.SECONDS);
+
+            assertEquals(Arrays.asList("Prague"), new ArrayList<>(batch.getResults().keySet()));
+            assertEquals(Arrays.asList("Brno", "Ostrava"), new ArrayList<>(batch.getErrors().keySet()));
+            assertEquals("API error: 500", batch.getErrors().get("Brno").getMessage());
+            assertFalse(batch.isComplete());
+            assertEquals(3, stub.hits("weather"));
+        }
+    }
+
+    /**
+     * Ensures that requests go through a custom {@link Transport} with the
+     * configured base URL and timeout, and that its status codes are honoured.
+     */
+    @Test
+    public void testCustomTransportReceivesRequests() throws Exception {
+        byte[] payload;
+        try (InputStream is = getClass().getResourceAsStream("/payloads/weather.json")) {
+            payload = is.readAllBytes();
+        }
+        List<String> uris = new ArrayList<>();
+        List<Duration> timeouts = new ArrayList<>();
+        int[] status = {200};
+        Transport transport = (uri, timeout) -> {
+            uris.add(uri.toString());
+            timeouts.add(timeout);
+            return CompletableFuture.completedFuture(new Transport.Response(status[0], payload));
+        };
+        WeatherService custom = WeatherService.builder("key")
+            .baseUrl("http://stub.invalid/api/")
+            .transport(transport)
+            .requestTimeout(Duration.ofSeconds(3))
+            .build();
+
+        assertEquals("Prague", custom.getCurrent("Prague", "metric").getCity());
+        assertEquals(1, uris.size());
+        assertTrue(uris.get(0).startsWith("http://stub.invalid/api/weather?q=Prague"), uris.get(0));
+        assertTrue(uris.get(0).endsWith("&appid=key"), uris.get(0));
+        assertEquals(Duration.ofSeconds(3), timeouts.get(0));
+
+        status[0] = 429;
+        ExecutionException ex = assertThrows(ExecutionException.class,
+            () -> custom.getCurrentAsync("Brno", "metric").get(5, TimeUnit.SECONDS));
+        assertEquals("API error: 429", ex.getCause().getMessage());
+    }
+
+    /**
+     * Ensures that the stub's injected error rate fails roughly the requested
+     * share of requests, reproducibly.
+     */
+    @Test
+    public void testStubErrorRateIsInjected() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            stub.setErrorRate(0.5, 503);
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl());
+            int failures = 0;
+            for (int i = 0; i < 40; i++) {
+                try {
+                    stubbed.getCurrent("City" + i, "metric");
+                } catch (RuntimeException ex) {
+                    assertEquals("API error: 503", ex.getMessage());
+                    failures++;
+                }
+            }
+            assertTrue(failures > 5 && failures < 35, "failures: " + failures);
+            assertEquals(40, stub.hits("weather"));
+        }
+    }
+
+    /**
+     * Ensures that entries evicted from the memory cache are counted against
+     * their endpoint, adding up to the cache's own count.
+     */
+    @Test
+    public void testCacheEvictionsArePerEndpoint() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            // every entry outweighs the cache, so each one is evicted right away
+            WeatherService tiny = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl())
+                .maxCacheBytes(1)
+                .build();
+            tiny.getForecastSeries("Prague", "metric", 8);
+            tiny.getCurrent("Prague", "metric");
+            tiny.getCurrent("Brno", "metric");
+
+            ServiceMetrics m = tiny.metrics();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (m.getCacheEvictionCounts().values().stream().mapToLong(Long::longValue).sum() < 3
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, m.endpoint("forecast").getCacheEvictions());
+            assertEquals(2, m.endpoint("weather").getCacheEvictions());
+            assertEquals(2, m.endpoint("weather").getCacheMisses());
+            assertEquals(m.getCacheEvictionCount(), m.getCacheEvictionCounts().values().stream()
+                .mapToLong(Long::longValue).sum());
+            assertTrue(m.dump().contains("weather: calls=2"), m.dump());
+            assertTrue(m.dump().contains("cacheHits=0 cacheMisses=2 cacheEvictions=2"), m.dump());
+        }
+    }
+
+    /**
+     * Ensures that calls, errors by status and cache hits are counted and
+     * that the metrics can be published over JMX.
+     */
+    @Test
+    public void testMetricsCountCallsErrorsAndHits() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService stubbed = new WeatherService("dummy-api-key", stub.baseUrl());
+            stubbed.getCurrent("Prague", "metric");
+            stubbed.getCurrent("Prague", "imperial");
+            stub.setStatus(503);
+            assertThrows(RuntimeException.class, () -> stubbed.fetchUVIndex(1, 2));
+
+            ServiceMetrics m = stubbed.metrics();
+            assertEquals(1, m.endpoint("weather").getCalls());
+            assertEquals(1, m.endpoint("uvi").getCalls());
+            assertEquals(0, m.endpoint("weather").getInFlight());
+            assertEquals(Map.of(503, 1L), m.endpoint("uvi").getErrors());
+            assertEquals(1, m.endpoint("weather").getLatency().count());
+            assertEquals(1, m.getCacheHitCount());
+            assertEquals(2, m.getCacheMissCount());
+            assertEquals(Map.of("forecast", 0L, "uvi", 0L, "weather", 1L), m.getCacheHitCounts());
+            assertEquals(Map.of("forecast", 0L, "uvi", 1L, "weather", 1L), m.getCacheMissCounts());
+            assertTrue(m.dump().contains("uvi: calls=1 retries=0 inFlight=0 errors={503=1}"), m.dump());
+
+            String name = "com.example.weather:type=WeatherServiceTest";
+            m.registerMBean(name);
+            try {
+                Object calls = ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(new ObjectName(name), "CacheHitCount");
+                assertEquals(1L, calls);
+            } finally {
+                stubbed.close();
+            }
+            assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(name)));
+        }
+    }
+
+    /**
+     * Ensures that retryable statuses are retried with backoff until the
+     * request succeeds, while a 404 fails at once.
+     */
+    @Test
+    public void testRetryableErrorsAreRetried() throws Exception {
+        byte[] payload;
+        try (InputStream is = getClass().getResourceAsStream("/payloads/weather.json")) {
+            payload = is.readAllBytes();
+        }
+        AtomicInteger calls = new AtomicInteger();
+        int[] statuses = {429, 503, 200};
+        Transport flaky = (uri, timeout) -> {
+            int n = calls.getAndIncrement();
+            int status = uri.toString().contains("Nowhere") ? 404 : statuses[Math.min(n, 2)];
+            return CompletableFuture.completedFuture(new Transport.Response(status, payload));
+        };
+        WeatherService retrying = WeatherService.builder("key")
+            .transport(flaky)
+            .retry(3, Duration.ofMillis(10), Duration.ofMillis(50))
+            .build();
+
+        assertEquals("Prague", retrying.getCurrent("Prague", "metric").getCity());
+        assertEquals(3, calls.get());
+        assertEquals(2, retrying.metrics().endpoint("weather").getRetries());
+
+        ApiException ex = assertThrows(ApiException.class, () -> retrying.getCurrent("Nowhere", "metric"));
+        assertEquals(404, ex.getStatusCode());
+        assertEquals(4, calls.get());
+    }
+
+    /**
+     * Ensures that an open circuit stops upstream calls and that expired
+     * responses are served while the upstream fails.
+     */
+    @Test
+    public void testCircuitBreakerServesStaleData() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService guarded = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl())
+                .cacheTtl(Duration.ofMillis(100))
+                .staleIfError(Duration.ofMinutes(1))
+                .circuitBreaker(2, Duration.ofMinutes(1))
+                .rateLimit(100, 10)
+                .build();
+            WeatherData fresh = guarded.getCurrent("Prague", "metric");
+            Thread.sleep(150);
+            stub.setStatus(503);
+
+            assertEquals(fresh.getTemp(), guarded.getCurrent("Prague", "metric").getTemp(),
+                "expected the stale response");
+            assertThrows(ApiException.class, () -> guarded.getCurrent("Brno", "metric"));
+            assertThrows(CircuitOpenException.class, () -> guarded.getCurrent("Ostrava", "metric"));
+            assertEquals(fresh.getTemp(), guarded.getCurrent("Prague", "metric").getTemp());
+
+            assertEquals(3, stub.hits("weather"));
+            assertEquals(2, guarded.metrics().getStaleServedCount());
+        }
+    }
+
+    /**
+     * Ensures that hedging answers requests whose first response is an
+     * outlier about as fast as the rest, within the extra-load budget.
+     */
+    @Test
+    public void testHedgingCutsTailLatency() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            stub.setLatencyMillis(10);
+            WeatherService hedging = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl())
+                .hedge(95, 0.25)
+                .build();
+            // distinct coordinates so that every lookup goes upstream
+            for (int i = 0; i < 30; i++) {
+                hedging.fetchUVIndex(50 + i * 0.01, 14);
+            }
+            stub.setLatencyOutliers(0.1, 1500);
+            int slow = 0;
+            for (int i = 0; i < 60; i++) {
+                long start = System.nanoTime();
+                hedging.fetchUVIndex(40 + i * 0.01, 14);
+                if (System.nanoTime() - start > TimeUnit.SECONDS.toNanos(1)) {
+                    slow++;
+                }
+            }
+
+            assertTrue(slow <= 2, slow + " of 60 lookups waited for an outlier");
+            long hedges = hedging.metrics().endpoint("uvi").getHedges();
+            assertTrue(hedges > 0 && hedges <= 0.25 * 90, "hedges: " + hedges);
+        }
+    }
+
+    /**
+     * Ensures that UV lookups inside one grid cell share a request and that
+     * a neighbouring cell is only answered from the cache with the
+     * nearest-cell fallback.
+     */
+    @Test
+    public void testUvGridSharesNearbyLookups() throws Exception {
+        long cell = GeoHash.encode(50.0755, 14.4378, 5);
+        double lat = GeoHash.latitude(cell, 5);
+        double lon = GeoHash.longitude(cell, 5);
+        long east = GeoHash.neighbour(cell, 5, 0, 1);
+        double eastLat = GeoHash.latitude(east, 5);
+        double eastLon = GeoHash.longitude(east, 5);
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService exact = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl())
+                .uvGrid(5, false)
+                .build();
+            assertEquals(6.38, exact.fetchUVIndex(lat + 0.01, lon - 0.01), 0.0001);
+            assertEquals(6.38, exact.fetchUVIndex(lat - 0.01, lon + 0.01), 0.0001);
+            assertEquals(1, stub.hits("uvi"));
+            assertEquals(1, exact.metrics().getGridHitCount());
+            exact.fetchUVIndex(eastLat, eastLon);
+            assertEquals(2, stub.hits("uvi"));
+
+            WeatherService nearest = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl())
+                .uvGrid(5, true)
+                .build();
+            nearest.fetchUVIndex(lat, lon);
+            assertEquals(6.38, nearest.fetchUVIndex(eastLat, eastLon), 0.0001);
+            assertEquals(3, stub.hits("uvi"));
+            assertEquals(1, nearest.metrics().getNearestCellHitCount());
+            nearest.clearCache();
+            nearest.fetchUVIndex(eastLat, eastLon);
+            assertEquals(4, stub.hits("uvi"));
+        }
+    }
+
+    /**
+     * Ensures that spellings of one city share a request and a cache entry
+     * once names are resolved through the city index.
+     */
+    @Test
+    public void testCityIndexCanonicalizesNames() throws Exception {
+        try (StubWeatherServer stub = new StubWeatherServer()) {
+            WeatherService indexed = WeatherService.builder("dummy-api-key")
+                .baseUrl(stub.baseUrl())
+                .cityIndex(CityIndex.bundled())
+                .build();
+            WeatherData first = indexed.getCurrent("prague", "metric");
+            assertEquals("Prague", first.getCity());
+            assertEquals("Prague", indexed.getCurrent("Praha ", "metric").getCity());
+            assertEquals("Prague", indexed.getCurrent("PRAGUE, CZ", "metric").getCity());
+            assertEquals(1, stub.hits("weather"));
+
+            indexed.getForecastSeries("Prague", "metric", 8);
+            indexed.getForecastSeries("praha", "metric", 24);
+            assertEquals(1, stub.hits("forecast"));
+
+            assertEquals("Atlantis", indexed.getCurrent("Atlantis", "metric").getCity());
+            assertEquals(2, stub.hits("weather"));
+        }
+    }
 }